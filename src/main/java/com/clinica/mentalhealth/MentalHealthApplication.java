@@ -1,12 +1,12 @@
 package com.clinica.mentalhealth;
 
+import com.clinica.mentalhealth.config.ReactiveCacheProperties;
 import com.clinica.mentalhealth.config.SecurityProperties;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
-import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -29,9 +29,8 @@ import org.springframework.security.crypto.password.PasswordEncoder;
  */
 @Slf4j
 @SpringBootApplication
-@EnableCaching
 @EnableScheduling
-@EnableConfigurationProperties(SecurityProperties.class)
+@EnableConfigurationProperties({ SecurityProperties.class, ReactiveCacheProperties.class })
 public class MentalHealthApplication {
 
   public static void main(String[] args) {
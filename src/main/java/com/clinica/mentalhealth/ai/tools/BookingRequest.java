@@ -1,4 +1,5 @@
 package com.clinica.mentalhealth.ai.tools;
 
 // La IA calculará la fecha exacta (ej: "2025-11-24T15:00:00") basándose en "el próximo lunes"
-public record BookingRequest(Long patientId, Long psychologistId, String startTime) {}
\ No newline at end of file
+// roomId es opcional: si la IA no lo indica, el sistema asigna una sala libre
+public record BookingRequest(Long patientId, Long psychologistId, String startTime, Long roomId) {}
@@ -0,0 +1,11 @@
+package com.clinica.mentalhealth.ai.tools;
+
+/**
+ * Request para buscar horarios en que psicólogo, paciente y una sala estén libres.
+ */
+public record FindJointSlotsRequest(
+    Long psychologistId,
+    Long patientId,
+    String fromDate  // Formato ISO-8601: "2025-12-10" (opcional, por defecto hoy)
+) {
+}
@@ -0,0 +1,3 @@
+package com.clinica.mentalhealth.ai.tools;
+
+public record PsychologistSearchRequest(String name, String specialty, Integer limit) {}
@@ -0,0 +1,42 @@
+package com.clinica.mentalhealth.config;
+
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+
+/**
+ * Efectos que deben verse recién cuando confirma la transacción reactiva en
+ * curso (invalidar cachés, actualizar índices en memoria).
+ *
+ * Aplicarlos antes del commit dejaría ver datos de una transacción que todavía
+ * puede revertirse, o permitiría que una lectura concurrente vuelva a cachear
+ * el dato anterior.
+ */
+public final class AfterCommit {
+
+  private AfterCommit() {
+    // Utility class - prevent instantiation
+  }
+
+  /**
+   * Ejecuta {@code action} tras el commit de la transacción en curso, o de
+   * inmediato si no hay transacción (o no admite sincronizaciones).
+   */
+  public static Mono<Void> run(Mono<Void> action) {
+    return TransactionSynchronizationManager.forCurrentTransaction()
+        .flatMap(manager -> {
+          if (!manager.isSynchronizationActive()) {
+            return action;
+          }
+          manager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public Mono<Void> afterCommit() {
+              return action;
+            }
+          });
+          return Mono.<Void>empty();
+        })
+        .onErrorResume(NoTransactionException.class, e -> action);
+  }
+}
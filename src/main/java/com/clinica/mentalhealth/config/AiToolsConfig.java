@@ -11,6 +11,7 @@ import com.clinica.mentalhealth.service.DateCalculationService;
 import com.clinica.mentalhealth.service.PatientService;
 import com.clinica.mentalhealth.service.PsychologistService;
 import com.clinica.mentalhealth.service.RoomService;
+import com.clinica.mentalhealth.web.dto.SlotCandidate;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Description;
@@ -64,7 +65,8 @@ public class AiToolsConfig {
     // --- HERRAMIENTAS DE CITAS ---
 
     @Bean
-    @Description("Reservar una cita médica. Requiere ID paciente, ID doctor y Fecha ISO (usa calculateDateTool primero para obtener la fecha).")
+    @Description("Reservar una cita médica. Requiere ID paciente, ID doctor y Fecha ISO (usa calculateDateTool primero para obtener la fecha). " +
+            "El ID de sala es opcional: si no se indica, se asigna automáticamente una sala libre.")
     @AllowedRoles({ Role.ROLE_ADMIN, Role.ROLE_PSYCHOLOGIST })
     public Function<BookingRequest, String> bookAppointmentTool(AppointmentService service) {
         return request -> {
@@ -72,8 +74,9 @@ public class AiToolsConfig {
                 var cita = service.createFromAi(
                         request.patientId(),
                         request.psychologistId(),
-                        request.startTime()).block();
-                return "ÉXITO: Cita agendada con ID " + cita.id();
+                        request.startTime(),
+                        request.roomId()).block();
+                return "ÉXITO: Cita agendada con ID " + cita.id() + " en la sala " + cita.roomId();
             } catch (Exception e) {
                 return "ERROR AL AGENDAR: " + e.getMessage();
             }
@@ -123,6 +126,26 @@ public class AiToolsConfig {
         };
     }
 
+    @Bean
+    @Description("Buscar los primeros horarios en que un psicólogo, un paciente y alguna sala están libres a la vez. " +
+            "Retorna candidatos con fecha/hora ISO y la sala sugerida. " +
+            "Úsala antes de agendar para no intentar horarios ocupados.")
+    @AllowedRoles({ Role.ROLE_ADMIN, Role.ROLE_PSYCHOLOGIST })
+    public Function<FindJointSlotsRequest, List<SlotCandidate>> findJointSlotsTool(AppointmentService service) {
+        return request -> {
+            try {
+                LocalDate from = request.fromDate() != null
+                        ? LocalDate.parse(request.fromDate().substring(0, 10))
+                        : null;
+                return service.findJointSlots(request.psychologistId(), request.patientId(), from, null, null)
+                        .collectList()
+                        .block();
+            } catch (Exception e) {
+                return List.of(); // Retornar lista vacía en caso de error
+            }
+        };
+    }
+
     @Bean
     @Description("Cancelar una cita existente. Requiere el ID de la cita. " +
             "Admin puede cancelar cualquier cita, Psicólogos solo sus propias citas.")
@@ -141,12 +164,29 @@ public class AiToolsConfig {
     // --- HERRAMIENTAS DE PSICÓLOGOS ---
 
     @Bean
-    @Description("Listar todos los psicólogos registrados con su especialidad y datos de contacto.")
+    @Description("Listar todos los psicólogos registrados con su especialidad y datos de contacto. " +
+            "Para encontrar a un psicólogo concreto usa searchPsychologistsTool.")
     @AllowedRoles({ Role.ROLE_ADMIN, Role.ROLE_PSYCHOLOGIST, Role.ROLE_PATIENT })
     public Function<EmptyRequest, List<Psychologist>> listPsychologistsTool(PsychologistService service) {
         return request -> service.findAllCached().block();
     }
 
+    @Bean
+    @Description("Buscar psicólogos por nombre (tolera errores de tipeo) y/o especialidad exacta. " +
+            "Requiere al menos uno de los dos. 'limit' es opcional (por defecto 10, máximo 50).")
+    @AllowedRoles({ Role.ROLE_ADMIN, Role.ROLE_PSYCHOLOGIST, Role.ROLE_PATIENT })
+    public Function<PsychologistSearchRequest, List<Psychologist>> searchPsychologistsTool(PsychologistService service) {
+        return request -> {
+            try {
+                return service.search(request.name(), request.specialty(), request.limit())
+                        .collectList()
+                        .block();
+            } catch (Exception e) {
+                return List.of(); // Retornar lista vacía en caso de error
+            }
+        };
+    }
+
     // --- HERRAMIENTAS DE INFRAESTRUCTURA/STAFF (SOLO ADMIN) ---
 
     @Bean
@@ -0,0 +1,132 @@
+package com.clinica.mentalhealth.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Bus de invalidación de caché entre instancias sobre LISTEN/NOTIFY.
+ *
+ * Cada evicción local se difunde al resto de nodos, que la aplican sobre su
+ * propio caché. No requiere infraestructura adicional (Redis, Kafka...).
+ * Si se publica dentro de una transacción, PostgreSQL entrega la
+ * notificación recién al confirmar, así que ningún nodo recarga datos viejos.
+ *
+ * Formato del payload: "nodeId|TIPO|valor". En {@code KEYS} el valor son
+ * varias claves separadas por '\n' (una sola notificación para un lote de
+ * claves, ej: una importación masiva).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CacheInvalidationBus {
+
+  static final String CHANNEL = "cache_invalidation";
+
+  /**
+   * Tope del payload de KEYS, por debajo del límite de NOTIFY (8000 bytes)
+   * con margen para el nodeId y el tipo.
+   */
+  static final int MAX_KEYS_PAYLOAD_BYTES = 7000;
+
+  private static final String KEY_SEPARATOR = "\n";
+
+  public enum Type {
+    KEY,
+    KEYS,
+    PREFIX,
+    ALL
+  }
+
+  public record Invalidation(Type type, String value) {
+  }
+
+  private final PostgresNotifications notifications;
+
+  // Identifica a esta instancia para ignorar sus propias notificaciones
+  private final String nodeId = UUID.randomUUID().toString();
+
+  /**
+   * Difunde una invalidación. Un fallo al publicar no debe romper la
+   * operación que la originó: los demás nodos expirarán por TTL.
+   */
+  public Mono<Void> publish(Type type, String value) {
+    return notifications.publish(CHANNEL, nodeId + "|" + type + "|" + (value != null ? value : ""))
+        .onErrorResume(error -> {
+          log.warn("No se pudo difundir la invalidación {} '{}': {}", type, value, error.getMessage());
+          return Mono.empty();
+        });
+  }
+
+  /**
+   * Difunde la invalidación de varias claves en la menor cantidad de
+   * notificaciones posible (una por bloque de {@link #MAX_KEYS_PAYLOAD_BYTES}).
+   */
+  public Mono<Void> publishKeys(Collection<String> keys) {
+    if (keys.size() == 1) {
+      return publish(Type.KEY, keys.iterator().next());
+    }
+    return Flux.fromIterable(chunks(keys, MAX_KEYS_PAYLOAD_BYTES))
+        .concatMap(chunk -> publish(Type.KEYS, String.join(KEY_SEPARATOR, chunk)))
+        .then();
+  }
+
+  /**
+   * Claves de un payload KEYS.
+   */
+  public static List<String> keysOf(Invalidation invalidation) {
+    return invalidation.value().isEmpty() ? List.of() : List.of(invalidation.value().split(KEY_SEPARATOR));
+  }
+
+  /**
+   * Agrupa las claves en bloques cuyo payload no supera {@code maxBytes}.
+   */
+  static List<List<String>> chunks(Collection<String> keys, int maxBytes) {
+    List<List<String>> chunks = new ArrayList<>();
+    List<String> current = new ArrayList<>();
+    int bytes = 0;
+    for (String key : keys) {
+      int size = key.getBytes(StandardCharsets.UTF_8).length + 1;
+      if (!current.isEmpty() && bytes + size > maxBytes) {
+        chunks.add(current);
+        current = new ArrayList<>();
+        bytes = 0;
+      }
+      current.add(key);
+      bytes += size;
+    }
+    if (!current.isEmpty()) {
+      chunks.add(current);
+    }
+    return chunks;
+  }
+
+  /**
+   * Invalidaciones emitidas por otras instancias.
+   */
+  public Flux<Invalidation> remoteInvalidations() {
+    return notifications.listen(CHANNEL)
+        .mapNotNull(this::parseRemote);
+  }
+
+  private Invalidation parseRemote(String payload) {
+    String[] parts = payload.split("\\|", 3);
+    if (parts.length != 3 || nodeId.equals(parts[0])) {
+      return null;
+    }
+    try {
+      return new Invalidation(Type.valueOf(parts[1]), parts[2]);
+    } catch (IllegalArgumentException e) {
+      log.warn("Invalidación de caché ignorada (payload inválido): {}", payload);
+      return null;
+    }
+  }
+}
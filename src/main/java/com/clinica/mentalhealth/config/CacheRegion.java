@@ -0,0 +1,249 @@
+package com.clinica.mentalhealth.config;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Región de caché independiente (ej: "psychologist", "room").
+ *
+ * Cada región tiene su propio Caffeine: tamaño por peso, TTLs y
+ * estadísticas propias, de modo que una región grande y fría no desaloja
+ * las entradas de una pequeña y caliente. Las estadísticas se publican en
+ * Micrometer con el tag {@code cache=<región>}.
+ *
+ * Las claves se guardan junto con la generación de la región. Vaciar la
+ * región es O(1) para quien invalida: se incrementa la generación y las
+ * entradas anteriores, ya inalcanzables, se borran en segundo plano. Si se
+ * dejaran hasta su TTL seguirían ocupando peso (y conservando su frecuencia
+ * en TinyLFU), y una región llena desalojaría las entradas nuevas en lugar
+ * de las muertas.
+ *
+ * Mecánica de lectura (ver {@link ReactiveCache}): single-flight por clave y
+ * refresh-ahead entre el soft y el hard TTL.
+ *
+ * Resultados negativos: si se pide, un resultado vacío (o un "no encontrado",
+ * ver {@link NotFound}) también se guarda, pero con el negative TTL de la
+ * región, que es corto. Así las búsquedas repetidas de IDs o DNIs
+ * inexistentes no llegan a la BD.
+ */
+@Slf4j
+final class CacheRegion {
+
+  private record Key(long generation, String key) {
+  }
+
+  /**
+   * Valor cacheado junto con el instante (ticker) en que empezó su carga: el
+   * dato es al menos tan reciente como ese instante.
+   */
+  private record Entry(Object value, long loadedAt) {
+
+    boolean negative() {
+      return value == EMPTY || value instanceof NotFound;
+    }
+  }
+
+  /**
+   * Resultado negativo que debe reproducirse como un error 404 con el mismo mensaje.
+   */
+  record NotFound(String reason) {
+  }
+
+  private static final Object EMPTY = new Object();
+
+  private final String name;
+  private final ReactiveCacheProperties.Policy policy;
+  private final Ticker ticker;
+  private final Executor executor;
+  private final AsyncCache<Key, Entry> cache;
+  private final AtomicLong generation = new AtomicLong();
+  private final Set<Key> refreshing = ConcurrentHashMap.newKeySet();
+
+  CacheRegion(String name, ReactiveCacheProperties.Policy policy, Ticker ticker, Executor executor) {
+    this.name = name;
+    this.policy = policy;
+    this.ticker = ticker;
+    this.executor = executor;
+    this.cache = Caffeine.newBuilder()
+        .ticker(ticker)
+        .executor(executor)
+        .maximumWeight(policy.maximumWeight())
+        .weigher((Key key, Entry entry) -> weightOf(entry.value()))
+        .expireAfter(new Expiry<Key, Entry>() {
+          @Override
+          public long expireAfterCreate(Key key, Entry entry, long currentTime) {
+            return ttlOf(entry);
+          }
+
+          @Override
+          public long expireAfterUpdate(Key key, Entry entry, long currentTime, long currentDuration) {
+            // Una recarga exitosa reemplaza la entrada y reinicia el hard TTL
+            return ttlOf(entry);
+          }
+
+          @Override
+          public long expireAfterRead(Key key, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+          }
+        })
+        .recordStats()
+        .buildAsync();
+  }
+
+  public String name() {
+    return name;
+  }
+
+  /**
+   * @param cacheEmpty si es {@code true}, un resultado vacío se guarda como
+   *                   negativo (negative TTL); si no, no se cachea
+   */
+  @SuppressWarnings("unchecked")
+  public <T> Mono<T> get(String key, Supplier<Mono<T>> supplier, boolean cacheEmpty) {
+    return Mono.defer(() -> {
+      Key cacheKey = new Key(generation.get(), key);
+      // Hit o carga en curso: se reutiliza el future. Miss: se suscribe al
+      // supplier una sola vez. Si termina vacío (sin cacheEmpty) o con error,
+      // Caffeine descarta la entrada y la próxima petición vuelve a intentar.
+      CompletableFuture<Entry> future = cache.get(cacheKey, (k, executor) -> {
+        Mono<Entry> load = load(supplier);
+        return (cacheEmpty ? load.defaultIfEmpty(new Entry(EMPTY, ticker.read())) : load).toFuture();
+      });
+      // suppressCancel: si un suscriptor cancela, no se aborta la carga compartida
+      return Mono.fromFuture(future, true)
+          .doOnNext(entry -> refreshIfStale(cacheKey, future, entry, supplier))
+          .filter(entry -> entry.value() != EMPTY)
+          .map(entry -> (T) entry.value());
+    });
+  }
+
+  public void invalidate(String key) {
+    cache.synchronous().invalidate(new Key(generation.get(), key));
+  }
+
+  /**
+   * Invalida las claves que cumplen el predicado. Recorre solo esta región;
+   * para vaciarla completa usar {@link #clear()}.
+   */
+  public void invalidateMatching(Predicate<String> predicate) {
+    cache.asMap().keySet().removeIf(key -> predicate.test(key.key()));
+  }
+
+  /**
+   * Vacía la región en O(1) pasando a una nueva generación; las entradas de
+   * generaciones anteriores se borran después, en el executor de la región.
+   */
+  public void clear() {
+    long current = generation.incrementAndGet();
+    executor.execute(() -> cache.asMap().keySet().removeIf(key -> key.generation() < current));
+  }
+
+  /**
+   * Publica hits, misses, tiempos de carga, evicciones y tamaño de la región.
+   */
+  void bindTo(MeterRegistry registry, Iterable<Tag> tags) {
+    CaffeineCacheMetrics.monitor(registry, cache, name, tags);
+  }
+
+  public long estimatedSize() {
+    return cache.synchronous().estimatedSize();
+  }
+
+  /**
+   * Valores ya cargados de la generación actual cuya carga empezó en
+   * {@code loadedSince} o después (para el snapshot). Las cargas en curso o
+   * fallidas se omiten.
+   */
+  Map<String, Object> loadedValues(long loadedSince) {
+    long current = generation.get();
+    Map<String, Object> values = new HashMap<>();
+    cache.asMap().forEach((key, future) -> {
+      if (key.generation() == current && future.isDone() && !future.isCompletedExceptionally()
+          && !future.join().negative() && future.join().loadedAt() - loadedSince >= 0) {
+        values.put(key.key(), future.join().value());
+      }
+    });
+    return values;
+  }
+
+  /**
+   * Carga un valor restaurado del snapshot como recién cargado. Si la clave
+   * ya se cargó desde la BD, se conserva ese valor.
+   */
+  void restore(String key, Object value) {
+    cache.asMap().putIfAbsent(new Key(generation.get(), key),
+        CompletableFuture.completedFuture(new Entry(value, ticker.read())));
+  }
+
+  void cleanUp() {
+    cache.synchronous().cleanUp();
+  }
+
+  private <T> Mono<Entry> load(Supplier<Mono<T>> supplier) {
+    return Mono.defer(() -> {
+      long startedAt = ticker.read();
+      return supplier.get().map(value -> new Entry(value, startedAt));
+    });
+  }
+
+  /**
+   * Si la entrada superó el soft TTL, la recarga en segundo plano (una sola
+   * recarga por clave a la vez). Solo reemplaza la entrada si sigue siendo la
+   * misma: si se invalidó mientras tanto, el valor recargado se descarta.
+   */
+  private <T> void refreshIfStale(Key key, CompletableFuture<Entry> current, Entry entry,
+      Supplier<Mono<T>> supplier) {
+    long age = ticker.read() - entry.loadedAt();
+    // Los negativos no se recargan: expiran solos con el negative TTL
+    if (entry.negative() || age < policy.softTtl().toNanos() || !refreshing.add(key)) {
+      return;
+    }
+    load(supplier)
+        .map(Optional::of)
+        .defaultIfEmpty(Optional.empty())
+        .doFinally(signal -> refreshing.remove(key))
+        .subscribe(
+            fresh -> fresh.ifPresentOrElse(
+                value -> cache.asMap().replace(key, current, CompletableFuture.completedFuture(value)),
+                // Vacío: el dato ya no existe
+                () -> cache.asMap().remove(key, current)),
+            error -> log.warn("Recarga en segundo plano de '{}' falló, se sigue sirviendo el valor anterior: {}",
+                key.key(), error.getMessage()));
+  }
+
+  private long ttlOf(Entry entry) {
+    return (entry.negative() ? policy.negativeTtl() : policy.hardTtl()).toNanos();
+  }
+
+  /**
+   * Peso de una entrada: las listas pesan según su cantidad de elementos.
+   */
+  private static int weightOf(Object value) {
+    if (value instanceof Collection<?> collection) {
+      return Math.max(1, collection.size());
+    }
+    if (value instanceof Map<?, ?> map) {
+      return Math.max(1, map.size());
+    }
+    return 1;
+  }
+}
@@ -0,0 +1,404 @@
+package com.clinica.mentalhealth.config;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Snapshot de {@link ReactiveCache} para reinicios en caliente.
+ *
+ * Al apagarse de forma ordenada, la aplicación escribe las regiones
+ * cacheadas en un archivo local (memory-mapped). Al arrancar, antes de
+ * marcarse como lista (readiness), lo vuelve a cargar: tras un despliegue
+ * las primeras peticiones ya no van todas a PostgreSQL.
+ *
+ * Cada región se guarda con su sello de versión (secuencia
+ * {@code cache_version_<región>}, ver V5) y solo se restaura si el sello
+ * sigue igual, es decir, si nadie modificó la tabla mientras la aplicación
+ * estaba abajo. Las regiones sin sello no se guardan.
+ *
+ * El sello tiene que corresponder a cuándo se cargaron las entradas, no al
+ * apagado: una invalidación perdida (la conexión LISTEN se estaba
+ * reconectando) deja una entrada vieja que, sellada con la versión del
+ * apagado, resucitaría en el próximo arranque. Por eso se lee la versión de
+ * cada región al arrancar y periódicamente ({@code cache.snapshot.stamp-interval}),
+ * recordando desde qué instante rige. Al apagar, una región se guarda solo si
+ * su versión sigue igual a la recordada, y solo con las entradas cargadas
+ * desde ese instante.
+ *
+ * Solo se guardan las regiones de {@code cache.snapshot.regions}: las que
+ * tienen datos personales (pacientes) nunca se escriben a disco sin cifrar.
+ * El archivo se crea legible solo por el dueño del proceso.
+ *
+ * Solo se deserializan tipos del paquete {@code domain} (y listas de
+ * ellos): el archivo no puede instanciar clases arbitrarias.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CacheSnapshot {
+
+  private static final int MAGIC = 0x4D484353; // "MHCS"
+  private static final int FORMAT_VERSION = 1;
+  private static final int HEADER_BYTES = 3 * Integer.BYTES;
+  private static final Duration DB_TIMEOUT = Duration.ofSeconds(5);
+  private static final String DOMAIN_PACKAGE = "com.clinica.mentalhealth.domain.";
+  private static final Set<Class<?>> SIMPLE_TYPES = Set.of(String.class, Long.class, Integer.class, Boolean.class);
+  private static final Set<String> DEFAULT_REGIONS = Set.of("psychologist", "room");
+
+  private static final String VERSIONS_SQL = """
+      SELECT substring(sequencename FROM 15) AS region, COALESCE(last_value, 0) AS version
+      FROM pg_sequences
+      WHERE schemaname = current_schema() AND sequencename LIKE 'cache\\_version\\_%'
+      """;
+
+  /**
+   * Versión de una región y el instante (ticker del caché) desde el cual las
+   * entradas cargadas son al menos tan recientes como esa versión.
+   */
+  record Stamp(long version, long loadedSince) {
+  }
+
+  record Snapshot(Instant createdAt, List<RegionSnapshot> regions) {
+  }
+
+  record RegionSnapshot(String region, long version, List<SnapshotEntry> entries) {
+  }
+
+  /**
+   * @param type        clase del valor ({@code java.util.List} para listas)
+   * @param elementType clase de los elementos si el valor es una lista no vacía
+   */
+  record SnapshotEntry(String key, String type, String elementType, JsonNode value) {
+  }
+
+  private final ReactiveCache reactiveCache;
+  private final DatabaseClient databaseClient;
+  private final ObjectMapper objectMapper;
+  private final Map<String, Stamp> stamps = new ConcurrentHashMap<>();
+
+  @Value("${cache.snapshot.enabled:false}")
+  private boolean enabled;
+
+  @Value("${cache.snapshot.path:${user.home}/.clinica/cache.snapshot}")
+  private Path path;
+
+  /** Regiones que se pueden escribir a disco; nunca las que tienen datos personales. */
+  @Value("${cache.snapshot.regions:psychologist,room}")
+  private Set<String> allowedRegions = DEFAULT_REGIONS;
+
+  @Value("${cache.snapshot.max-age:PT1H}")
+  private Duration maxAge;
+
+  // --- CICLO DE VIDA ---
+
+  /**
+   * Se ejecuta antes de ApplicationReadyEvent, por lo que la instancia no
+   * recibe tráfico hasta terminar de restaurar.
+   */
+  @EventListener(ApplicationStartedEvent.class)
+  public void restoreOnStartup() {
+    if (!enabled) {
+      return;
+    }
+    Map<String, Long> versions;
+    long stampedAt;
+    try {
+      versions = currentVersions();
+      stampedAt = reactiveCache.now();
+    } catch (RuntimeException e) {
+      log.warn("No se pudo leer la versión de las regiones de caché: {}", e.getMessage());
+      deleteQuietly(path);
+      return;
+    }
+    // Todo lo que se cargue (o restaure) desde aquí es al menos tan reciente como estas versiones
+    stamp(versions, stampedAt);
+    if (!Files.exists(path)) {
+      return;
+    }
+    try {
+      Snapshot snapshot = read(path);
+      if (snapshot.createdAt().plus(maxAge).isBefore(Instant.now())) {
+        log.info("Snapshot de caché descartado: tiene más de {}", maxAge);
+        return;
+      }
+      int restored = restore(snapshot, versions);
+      // Una escritura entre la lectura del sello y la restauración invalida la región
+      Map<String, Long> after = currentVersions();
+      for (RegionSnapshot region : snapshot.regions()) {
+        if (!Objects.equals(versions.get(region.region()), after.get(region.region()))) {
+          reactiveCache.regionFor(region.region()).clear();
+        }
+      }
+      log.info("Caché restaurado desde snapshot: {} entradas", restored);
+    } catch (IOException | RuntimeException e) {
+      log.warn("No se pudo restaurar el snapshot de caché {}: {}", path, e.getMessage());
+    } finally {
+      // Un snapshot se usa una sola vez; el siguiente lo escribe el próximo apagado
+      deleteQuietly(path);
+    }
+  }
+
+  /**
+   * Vuelve a leer las versiones: si una región cambió, las entradas que se
+   * carguen desde ahora quedan selladas con la versión nueva.
+   */
+  @Scheduled(fixedDelayString = "${cache.snapshot.stamp-interval:PT1M}",
+      initialDelayString = "${cache.snapshot.stamp-interval:PT1M}")
+  public void refreshStamps() {
+    if (!enabled) {
+      return;
+    }
+    versions().subscribe(
+        versions -> stamp(versions, reactiveCache.now()),
+        error -> log.debug("No se pudo actualizar el sello de versión del caché: {}", error.getMessage()));
+  }
+
+  @PreDestroy
+  public void writeOnShutdown() {
+    if (!enabled) {
+      return;
+    }
+    try {
+      Snapshot snapshot = capture(currentVersions());
+      if (snapshot.regions().isEmpty()) {
+        return;
+      }
+      write(path, snapshot);
+      log.info("Snapshot de caché escrito en {} ({} regiones)", path, snapshot.regions().size());
+    } catch (IOException | RuntimeException e) {
+      log.warn("No se pudo escribir el snapshot de caché {}: {}", path, e.getMessage());
+    }
+  }
+
+  /**
+   * Registra las versiones leídas. Si una región conserva la versión, se
+   * mantiene el sello anterior (más antiguo, abarca más entradas).
+   *
+   * @param readAt instante del ticker posterior a la lectura de las versiones
+   */
+  void stamp(Map<String, Long> versions, long readAt) {
+    versions.forEach((region, version) -> stamps.merge(region, new Stamp(version, readAt),
+        (previous, fresh) -> previous.version() == fresh.version() ? previous : fresh));
+  }
+
+  private Map<String, Long> currentVersions() {
+    return versions().block(DB_TIMEOUT);
+  }
+
+  private Mono<Map<String, Long>> versions() {
+    return databaseClient.sql(VERSIONS_SQL)
+        .map((row, metadata) -> Map.entry(
+            Objects.requireNonNull(row.get("region", String.class)),
+            Objects.requireNonNull(row.get("version", Long.class))))
+        .all()
+        .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+        .switchIfEmpty(Mono.just(Map.of()));
+  }
+
+  // --- CAPTURA / RESTAURACIÓN ---
+
+  /**
+   * @param versions versiones al momento del apagado
+   */
+  Snapshot capture(Map<String, Long> versions) {
+    List<RegionSnapshot> regions = new ArrayList<>();
+    for (CacheRegion region : reactiveCache.regions()) {
+      if (!allowedRegions.contains(region.name())) {
+        continue;
+      }
+      Long version = versions.get(region.name());
+      Stamp stamp = stamps.get(region.name());
+      if (version == null || stamp == null) {
+        continue;
+      }
+      if (stamp.version() != version) {
+        // Cambió después del último sello: puede haber entradas viejas sin invalidar
+        log.debug("Región '{}' no se guarda en el snapshot: cambió su versión", region.name());
+        continue;
+      }
+      List<SnapshotEntry> entries = new ArrayList<>();
+      region.loadedValues(stamp.loadedSince()).forEach((key, value) -> {
+        SnapshotEntry entry = toEntry(key, value);
+        if (entry != null) {
+          entries.add(entry);
+        }
+      });
+      if (!entries.isEmpty()) {
+        regions.add(new RegionSnapshot(region.name(), version, entries));
+      }
+    }
+    return new Snapshot(Instant.now(), regions);
+  }
+
+  int restore(Snapshot snapshot, Map<String, Long> versions) {
+    int restored = 0;
+    for (RegionSnapshot region : snapshot.regions()) {
+      if (!allowedRegions.contains(region.region())) {
+        continue;
+      }
+      if (!Objects.equals(versions.get(region.region()), region.version())) {
+        log.debug("Región '{}' descartada del snapshot: cambió su versión", region.region());
+        continue;
+      }
+      CacheRegion target = reactiveCache.regionFor(region.region());
+      for (SnapshotEntry entry : region.entries()) {
+        if (!region.region().equals(ReactiveCacheProperties.regionOf(entry.key()))) {
+          continue;
+        }
+        try {
+          target.restore(entry.key(), fromEntry(entry));
+          restored++;
+        } catch (IOException | IllegalArgumentException e) {
+          log.debug("Entrada '{}' del snapshot descartada: {}", entry.key(), e.getMessage());
+        }
+      }
+    }
+    return restored;
+  }
+
+  /**
+   * @return la entrada, o {@code null} si el valor no es de un tipo permitido
+   */
+  private SnapshotEntry toEntry(String key, Object value) {
+    if (value instanceof List<?> list) {
+      Class<?> element = list.isEmpty() ? null : list.get(0).getClass();
+      if (element != null && (!isAllowed(element) || list.stream().anyMatch(item -> item.getClass() != element))) {
+        return null;
+      }
+      return new SnapshotEntry(key, List.class.getName(), element != null ? element.getName() : null,
+          objectMapper.valueToTree(list));
+    }
+    if (!isAllowed(value.getClass())) {
+      return null;
+    }
+    return new SnapshotEntry(key, value.getClass().getName(), null, objectMapper.valueToTree(value));
+  }
+
+  private Object fromEntry(SnapshotEntry entry) throws IOException {
+    if (List.class.getName().equals(entry.type())) {
+      if (entry.elementType() == null) {
+        return List.of();
+      }
+      JavaType listType = objectMapper.getTypeFactory()
+          .constructCollectionType(List.class, allowedClass(entry.elementType()));
+      return objectMapper.treeToValue(entry.value(), listType);
+    }
+    return objectMapper.treeToValue(entry.value(), allowedClass(entry.type()));
+  }
+
+  private static boolean isAllowed(Class<?> type) {
+    return SIMPLE_TYPES.contains(type) || (type.isRecord() && type.getName().startsWith(DOMAIN_PACKAGE));
+  }
+
+  /**
+   * Resuelve una clase del snapshot validando el nombre antes de cargarla.
+   */
+  private static Class<?> allowedClass(String name) {
+    boolean candidate = name.startsWith(DOMAIN_PACKAGE)
+        || SIMPLE_TYPES.stream().anyMatch(type -> type.getName().equals(name));
+    if (!candidate) {
+      throw new IllegalArgumentException("Tipo no permitido en snapshot: " + name);
+    }
+    try {
+      Class<?> type = Class.forName(name, false, CacheSnapshot.class.getClassLoader());
+      if (!isAllowed(type)) {
+        throw new IllegalArgumentException("Tipo no permitido en snapshot: " + name);
+      }
+      return type;
+    } catch (ClassNotFoundException e) {
+      throw new IllegalArgumentException("Tipo desconocido en snapshot: " + name);
+    }
+  }
+
+  // --- ARCHIVO ---
+
+  /**
+   * Escribe a un archivo temporal y lo renombra: un apagado a mitad de
+   * escritura nunca deja un snapshot corrupto en {@code file}.
+   *
+   * El temporal se crea de cero con permisos de dueño ({@code rw-------}):
+   * los permisos solo se aplican al crear, así que no se reutiliza uno previo.
+   */
+  void write(Path file, Snapshot snapshot) throws IOException {
+    byte[] json = objectMapper.writeValueAsBytes(snapshot);
+    Path absolute = file.toAbsolutePath();
+    boolean posix = absolute.getFileSystem().supportedFileAttributeViews().contains("posix");
+    Path directory = absolute.getParent();
+    if (!Files.isDirectory(directory)) {
+      Files.createDirectories(directory, posix ? ownerOnly("rwx------") : new FileAttribute<?>[0]);
+    }
+    Path temp = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+    Files.deleteIfExists(temp);
+    try (FileChannel channel = FileChannel.open(temp,
+        Set.of(StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE),
+        posix ? ownerOnly("rw-------") : new FileAttribute<?>[0])) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) json.length);
+      buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(json.length).put(json);
+      buffer.force();
+    }
+    Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  Snapshot read(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size < HEADER_BYTES) {
+        throw new IOException("archivo truncado");
+      }
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+        throw new IOException("formato desconocido");
+      }
+      int length = buffer.getInt();
+      if (length < 0 || length > size - HEADER_BYTES) {
+        throw new IOException("archivo truncado");
+      }
+      try (InputStream json = new ByteBufferBackedInputStream(buffer.slice(HEADER_BYTES, length))) {
+        return objectMapper.readValue(json, Snapshot.class);
+      }
+    }
+  }
+
+  private static FileAttribute<?>[] ownerOnly(String permissions) {
+    return new FileAttribute<?>[] {PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString(permissions))};
+  }
+
+  private static void deleteQuietly(Path file) {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      log.debug("No se pudo borrar el snapshot {}: {}", file, e.getMessage());
+    }
+  }
+}
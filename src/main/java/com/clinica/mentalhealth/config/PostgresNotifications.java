@@ -0,0 +1,101 @@
+package com.clinica.mentalhealth.config;
+
+import io.r2dbc.postgresql.PostgresqlConnectionFactoryProvider;
+import io.r2dbc.postgresql.api.Notification;
+import io.r2dbc.postgresql.api.PostgresqlConnection;
+import io.r2dbc.spi.ConnectionFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcConnectionDetails;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Acceso a LISTEN/NOTIFY de PostgreSQL.
+ *
+ * Cada canal escuchado usa una conexión dedicada (fuera del pool, para no
+ * ocupar un slot de forma permanente) que se abre con el primer suscriptor y
+ * se cierra con el último. Si la conexión se cae, se reabre con backoff; las
+ * notificaciones emitidas mientras tanto se pierden, por lo que los
+ * consumidores deben tolerarlo (ej: el índice de citas se resincroniza
+ * periódicamente).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PostgresNotifications {
+
+  private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z_][a-z0-9_]*");
+
+  private final ObjectProvider<R2dbcConnectionDetails> connectionDetails;
+  private final DatabaseClient databaseClient;
+
+  private final Map<String, Flux<String>> channels = new ConcurrentHashMap<>();
+
+  /**
+   * Payloads publicados en el canal. Flujo compartido: todos los suscriptores
+   * de un mismo canal comparten la conexión.
+   */
+  public Flux<String> listen(String channel) {
+    return channels.computeIfAbsent(validate(channel), this::openChannel);
+  }
+
+  /**
+   * Publica un payload en el canal (se entrega al confirmar la transacción).
+   */
+  public Mono<Void> publish(String channel, String payload) {
+    return databaseClient.sql("SELECT pg_notify(:channel, :payload)")
+        .bind("channel", validate(channel))
+        .bind("payload", payload)
+        .then();
+  }
+
+  private Flux<String> openChannel(String channel) {
+    return Flux.usingWhen(
+            Mono.defer(() -> Mono.from(dedicatedConnectionFactory().create())).cast(PostgresqlConnection.class),
+            connection -> connection.createStatement("LISTEN " + channel)
+                .execute()
+                .flatMap(result -> result.getRowsUpdated())
+                .thenMany(Flux.defer(() -> {
+                  log.info("Escuchando notificaciones de PostgreSQL en el canal '{}'", channel);
+                  return connection.getNotifications();
+                })),
+            PostgresqlConnection::close)
+        .filter(notification -> channel.equals(notification.getName()))
+        .map(PostgresNotifications::payloadOf)
+        .doOnError(error -> log.warn("Conexión LISTEN '{}' perdida, reintentando: {}", channel, error.getMessage()))
+        .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+        .share();
+  }
+
+  private ConnectionFactory dedicatedConnectionFactory() {
+    R2dbcConnectionDetails details = connectionDetails.getIfAvailable();
+    if (details == null) {
+      throw new IllegalStateException("No hay conexión R2DBC configurada para LISTEN/NOTIFY.");
+    }
+    // Se usa el provider del driver directamente: ignora "r2dbc:pool:" y crea
+    // siempre una conexión física propia
+    return new PostgresqlConnectionFactoryProvider().create(details.getConnectionFactoryOptions());
+  }
+
+  private static String payloadOf(Notification notification) {
+    return notification.getParameter() != null ? notification.getParameter() : "";
+  }
+
+  private static String validate(String channel) {
+    // El nombre va en LISTEN sin parámetros: solo identificadores simples
+    if (channel == null || !CHANNEL_NAME.matcher(channel).matches()) {
+      throw new IllegalArgumentException("Nombre de canal inválido: " + channel);
+    }
+    return channel;
+  }
+}
@@ -0,0 +1,36 @@
+package com.clinica.mentalhealth.config;
+
+import io.r2dbc.postgresql.PostgresqlConnectionFactoryProvider;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.r2dbc.ConnectionFactoryOptionsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Parámetros de sesión de PostgreSQL fijados al abrir cada conexión R2DBC.
+ *
+ * Se envían en el mensaje de inicio de la conexión, así que no cuestan un
+ * round trip por consulta: la búsqueda fuzzy ejecuta solo su SELECT, sin
+ * BEGIN / set_config / COMMIT alrededor.
+ *
+ * Reemplaza cualquier {@code options} de la URL de conexión; si hiciera falta
+ * otro parámetro de sesión, se agrega aquí.
+ */
+@Configuration
+public class R2dbcSessionConfig {
+
+  static final String SIMILARITY_THRESHOLD = "pg_trgm.similarity_threshold";
+
+  /**
+   * Umbral del operador {@code %} de pg_trgm, usado por las búsquedas de
+   * pacientes y psicólogos por nombre.
+   */
+  @Bean
+  public ConnectionFactoryOptionsBuilderCustomizer sessionParameters(
+    @Value("${search.similarity-threshold:0.1}") double similarityThreshold
+  ) {
+    return builder -> builder.option(PostgresqlConnectionFactoryProvider.OPTIONS,
+      Map.of(SIMILARITY_THRESHOLD, Double.toString(similarityThreshold)));
+  }
+}
@@ -1,40 +1,142 @@
 package com.clinica.mentalhealth.config;
 
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
 import reactor.core.publisher.Mono;
 
-import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Supplier;
 
 /**
  * Caché reactivo usando Caffeine con wrapping no bloqueante.
  * 
  * Diseñado para trabajar con Mono/Flux sin bloquear el event loop.
- * Usa Mono.defer() para evaluación lazy y Mono.fromCallable() para
- * operaciones de lectura del caché.
+ * Las entradas viven en regiones ({@link CacheRegion}) según el prefijo de
+ * la clave: "psychologist:all" va a la región "psychologist". Cada región
+ * tiene su propio tamaño, TTLs y estadísticas, así una región grande y fría
+ * no desaloja a una pequeña y caliente.
  * 
  * Uso:
  * 
  * <pre>
- * reactiveCache.cacheMono("psychologists:all",
+ * reactiveCache.cacheMono("psychologist:all",
  *     () -> repository.findAll().collectList());
  * </pre>
+ *
+ * En los servicios se usa de forma declarativa con {@link ReactiveCacheable}
+ * y {@link ReactiveCacheEvict}; es el único caché de la aplicación, así el
+ * presupuesto de memoria se configura en un solo lugar.
+ *
+ * Ante un miss, las peticiones concurrentes para la misma clave comparten
+ * una sola carga (single-flight).
+ *
+ * Las evicciones se difunden al resto de instancias con
+ * {@link CacheInvalidationBus}, y las que llegan de otros nodos se aplican
+ * solo localmente (sin volver a difundirlas).
+ *
+ * Refresh-ahead (stale-while-revalidate) con políticas por región
+ * ({@link ReactiveCacheProperties}):
+ * - Antes del soft TTL: hit normal.
+ * - Entre soft y hard TTL: se sirve el valor al instante y se dispara una
+ *   única recarga en segundo plano; si tiene éxito, reinicia la edad.
+ * - Pasado el hard TTL (las recargas siguieron fallando): la entrada expira
+ *   y la siguiente petición carga de forma síncrona.
+ *
+ * Métricas (actuator/prometheus): las de Caffeine por región
+ * ({@code cache.gets}, {@code cache.load.duration}, {@code cache.evictions},
+ * {@code cache.size}...) y {@code cache.invalidations}, que cuenta las
+ * invalidaciones por región, alcance (key/prefix/region) y origen
+ * (local/remote) para detectar tormentas de invalidación.
  */
+@Slf4j
 @Component
 public class ReactiveCache {
 
-  private final Cache<String, Object> caffeineCache;
+  private static final String METRIC_INVALIDATIONS = "cache.invalidations";
+  private static final String ORIGIN_LOCAL = "local";
+  private static final String ORIGIN_REMOTE = "remote";
+  private static final List<Tag> REGION_TAGS = List.of(Tag.of("cache.manager", "reactiveCache"));
 
-  public ReactiveCache() {
-    this.caffeineCache = Caffeine.newBuilder()
-        .initialCapacity(100)
-        .maximumSize(500)
-        .expireAfterWrite(Duration.ofMinutes(30))
-        .recordStats()
-        .build();
+  private final Map<String, CacheRegion> regions = new ConcurrentHashMap<>();
+  private final CacheInvalidationBus invalidationBus;
+  private final ReactiveCacheProperties properties;
+  private final MeterRegistry meterRegistry;
+  private final Ticker ticker;
+  private final Executor executor;
+  private volatile Disposable remoteSubscription;
+
+  @Autowired
+  public ReactiveCache(CacheInvalidationBus invalidationBus, ReactiveCacheProperties properties,
+      MeterRegistry meterRegistry) {
+    this(invalidationBus, properties, meterRegistry, Ticker.systemTicker());
+  }
+
+  ReactiveCache(CacheInvalidationBus invalidationBus, ReactiveCacheProperties properties,
+      MeterRegistry meterRegistry, Ticker ticker) {
+    this(invalidationBus, properties, meterRegistry, ticker, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * @param executor mantenimiento de Caffeine y limpieza de generaciones
+   *                 vaciadas (los tests usan uno síncrono)
+   */
+  ReactiveCache(CacheInvalidationBus invalidationBus, ReactiveCacheProperties properties,
+      MeterRegistry meterRegistry, Ticker ticker, Executor executor) {
+    this.invalidationBus = invalidationBus;
+    this.properties = properties;
+    this.meterRegistry = meterRegistry;
+    this.ticker = ticker;
+    this.executor = executor;
+  }
+
+  /**
+   * Región de una clave; se crea (y se registra en Micrometer) la primera vez
+   * que se usa. Solo el camino de carga crea regiones: ver {@link #existingRegion}.
+   */
+  CacheRegion regionFor(String key) {
+    return regions.computeIfAbsent(ReactiveCacheProperties.regionOf(key), name -> {
+      CacheRegion region = new CacheRegion(name, properties.policyFor(name), ticker, executor);
+      region.bindTo(meterRegistry, REGION_TAGS);
+      return region;
+    });
+  }
+
+  /**
+   * Región ya creada de una clave, o {@code null}. Las invalidaciones la usan
+   * en lugar de {@link #regionFor}: una región que nunca cargó nada no tiene
+   * qué invalidar, y una clave con un prefijo desconocido (errata, otra
+   * versión de la aplicación, un NOTIFY arbitrario) no debe crear un caché
+   * ni nuevas series de métricas.
+   */
+  private CacheRegion existingRegion(String key) {
+    return regions.get(ReactiveCacheProperties.regionOf(key));
+  }
+
+  /**
+   * Instante actual del ticker con que se sellan las cargas.
+   */
+  long now() {
+    return ticker.read();
+  }
+
+  /**
+   * Regiones creadas hasta ahora.
+   */
+  Collection<CacheRegion> regions() {
+    return regions.values();
   }
 
   /**
@@ -42,24 +144,24 @@ public class ReactiveCache {
    * Si el valor está en caché, lo retorna inmediatamente.
    * Si no, ejecuta el supplier y guarda el resultado.
    *
+   * La carga es compartida, por lo que el supplier se ejecuta fuera del
+   * Context de Reactor del suscriptor (no debe depender del usuario actual).
+   *
    * @param key      Clave del caché
    * @param supplier Proveedor del valor si no está en caché
    * @param <T>      Tipo del valor
    * @return Mono con el valor (cacheado o recién obtenido)
    */
-  @SuppressWarnings("unchecked")
   public <T> Mono<T> cacheMono(String key, Supplier<Mono<T>> supplier) {
-    return Mono.defer(() -> {
-      // Intenta obtener del caché (operación rápida, no bloquea)
-      T cached = (T) caffeineCache.getIfPresent(key);
-      if (cached != null) {
-        return Mono.just(cached);
-      }
+    return regionFor(key).get(key, supplier, false);
+  }
 
-      // Cache miss: ejecutar supplier y guardar resultado
-      return supplier.get()
-          .doOnNext(value -> caffeineCache.put(key, value));
-    });
+  /**
+   * Como {@link #cacheMono}, pero un resultado vacío también se cachea
+   * (negative caching) durante el negative TTL de la región.
+   */
+  public <T> Mono<T> cacheMonoOrEmpty(String key, Supplier<Mono<T>> supplier) {
+    return regionFor(key).get(key, supplier, true);
   }
 
   /**
@@ -80,36 +182,114 @@ public class ReactiveCache {
    * Retorna Mono<Void> para composición reactiva.
    */
   public Mono<Void> evict(String key) {
-    return Mono.fromRunnable(() -> caffeineCache.invalidate(key));
+    return Mono.fromRunnable(() -> evictLocal(key, ORIGIN_LOCAL))
+        .then(invalidationBus.publish(CacheInvalidationBus.Type.KEY, key));
+  }
+
+  /**
+   * Invalida varias entradas y las difunde al resto de nodos en una sola
+   * notificación (o pocas, si son muchas claves).
+   */
+  public Mono<Void> evict(Collection<String> keys) {
+    if (keys.isEmpty()) {
+      return Mono.empty();
+    }
+    return Mono.fromRunnable(() -> keys.forEach(key -> evictLocal(key, ORIGIN_LOCAL)))
+        .then(invalidationBus.publishKeys(keys));
+  }
+
+  /**
+   * Invalida las claves dadas cuando confirma la transacción en curso, o de
+   * inmediato si no hay transacción (ver {@link AfterCommit}).
+   */
+  public Mono<Void> evictAfterCommit(Collection<String> keys) {
+    return AfterCommit.run(evict(keys));
   }
 
   /**
    * Invalida todas las entradas que comienzan con el prefijo dado.
+   * Si el prefijo es una región completa (ej: "room:"), la vacía en O(1).
    */
   public Mono<Void> evictByPrefix(String prefix) {
-    return Mono.fromRunnable(() -> caffeineCache.asMap().keySet().stream()
-        .filter(key -> key.startsWith(prefix))
-        .forEach(caffeineCache::invalidate));
+    return Mono.fromRunnable(() -> evictPrefixLocal(prefix, ORIGIN_LOCAL))
+        .then(invalidationBus.publish(CacheInvalidationBus.Type.PREFIX, prefix));
   }
 
   /**
    * Invalida todas las entradas del caché.
    */
   public Mono<Void> evictAll() {
-    return Mono.fromRunnable(caffeineCache::invalidateAll);
+    return Mono.fromRunnable(() -> evictAllLocal(ORIGIN_LOCAL))
+        .then(invalidationBus.publish(CacheInvalidationBus.Type.ALL, null));
+  }
+
+  private void evictLocal(String key, String origin) {
+    CacheRegion region = existingRegion(key);
+    if (region == null) {
+      return;
+    }
+    region.invalidate(key);
+    countInvalidation(region, "key", origin);
+  }
+
+  private void evictPrefixLocal(String prefix, String origin) {
+    if (prefix.indexOf(':') > 0) {
+      CacheRegion region = existingRegion(prefix);
+      if (region == null) {
+        return;
+      }
+      if (prefix.equals(region.name() + ":")) {
+        clearRegion(region, origin);
+        return;
+      }
+      region.invalidateMatching(key -> key.startsWith(prefix));
+      countInvalidation(region, "prefix", origin);
+    } else {
+      // El prefijo no llega al separador: puede abarcar varias regiones
+      regions.values().stream()
+          .filter(candidate -> candidate.name().startsWith(prefix))
+          .forEach(region -> clearRegion(region, origin));
+    }
+  }
+
+  private void evictAllLocal(String origin) {
+    regions.values().forEach(region -> clearRegion(region, origin));
+  }
+
+  private void clearRegion(CacheRegion region, String origin) {
+    region.clear();
+    countInvalidation(region, "region", origin);
+  }
+
+  private void countInvalidation(CacheRegion region, String scope, String origin) {
+    meterRegistry.counter(METRIC_INVALIDATIONS, "cache", region.name(), "scope", scope, "origin", origin)
+        .increment();
   }
 
   /**
-   * Obtiene estadísticas del caché para monitoreo.
+   * Aplica una invalidación recibida de otra instancia.
    */
-  public String getStats() {
-    var stats = caffeineCache.stats();
-    return String.format(
-        "Hits: %d, Misses: %d, Hit Rate: %.2f%%, Evictions: %d, Size: %d",
-        stats.hitCount(),
-        stats.missCount(),
-        stats.hitRate() * 100,
-        stats.evictionCount(),
-        caffeineCache.estimatedSize());
+  void applyRemote(CacheInvalidationBus.Invalidation invalidation) {
+    switch (invalidation.type()) {
+      case KEY -> evictLocal(invalidation.value(), ORIGIN_REMOTE);
+      case KEYS -> CacheInvalidationBus.keysOf(invalidation).forEach(key -> evictLocal(key, ORIGIN_REMOTE));
+      case PREFIX -> evictPrefixLocal(invalidation.value(), ORIGIN_REMOTE);
+      case ALL -> evictAllLocal(ORIGIN_REMOTE);
+    }
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void followRemoteInvalidations() {
+    remoteSubscription = invalidationBus.remoteInvalidations().subscribe(
+        this::applyRemote,
+        error -> log.warn("Se dejó de recibir invalidaciones remotas: {}", error.getMessage()));
+  }
+
+  @PreDestroy
+  public void stopFollowingRemoteInvalidations() {
+    Disposable subscription = remoteSubscription;
+    if (subscription != null) {
+      subscription.dispose();
+    }
   }
 }
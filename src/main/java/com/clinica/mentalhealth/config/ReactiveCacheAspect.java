@@ -0,0 +1,131 @@
+package com.clinica.mentalhealth.config;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.reactivestreams.Publisher;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.Ordered;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.Order;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Implementa {@link ReactiveCacheable} y {@link ReactiveCacheEvict} sobre
+ * {@link ReactiveCache}.
+ *
+ * Se ordena por fuera de {@code @Transactional}: la invalidación ocurre
+ * después del commit, así una recarga concurrente no vuelve a cachear el
+ * dato anterior.
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+@RequiredArgsConstructor
+public class ReactiveCacheAspect {
+
+  private static final ExpressionParser PARSER = new SpelExpressionParser();
+  private static final ParameterNameDiscoverer PARAMETER_NAMES = new DefaultParameterNameDiscoverer();
+
+  private final ReactiveCache reactiveCache;
+  private final Map<String, Expression> expressions = new ConcurrentHashMap<>();
+
+  @Around("@annotation(cacheable)")
+  public Object cache(ProceedingJoinPoint joinPoint, ReactiveCacheable cacheable) throws Throwable {
+    if (!cacheable.condition().isEmpty() && !Boolean.TRUE.equals(evaluate(joinPoint, cacheable.condition()))) {
+      return joinPoint.proceed();
+    }
+    String key = evaluateKey(joinPoint, cacheable.key());
+    Class<?> returnType = ((MethodSignature) joinPoint.getSignature()).getReturnType();
+    if (Flux.class.isAssignableFrom(returnType)) {
+      if (!cacheable.cacheMisses()) {
+        Mono<List<Object>> list = reactiveCache.cacheList(key,
+            () -> Flux.from(proceed(joinPoint)).collectList());
+        return list.flatMapIterable(Function.identity());
+      }
+      // Una lista vacía se guarda como resultado negativo
+      Mono<List<Object>> list = reactiveCache.cacheMonoOrEmpty(key,
+          () -> Flux.from(proceed(joinPoint)).collectList().filter(items -> !items.isEmpty()));
+      return list.flatMapIterable(Function.identity());
+    }
+    if (Mono.class.isAssignableFrom(returnType)) {
+      if (!cacheable.cacheMisses()) {
+        return reactiveCache.cacheMono(key, () -> Mono.from(proceed(joinPoint)));
+      }
+      return reactiveCache.cacheMonoOrEmpty(key, () -> Mono.from(proceed(joinPoint))
+              .onErrorResume(ReactiveCacheAspect::isNotFound,
+                  error -> Mono.just(new CacheRegion.NotFound(((ResponseStatusException) error).getReason()))))
+          .flatMap(value -> value instanceof CacheRegion.NotFound notFound
+              ? Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, notFound.reason()))
+              : Mono.just(value));
+    }
+    throw new IllegalStateException("@ReactiveCacheable requiere un método que retorne Mono o Flux: "
+        + joinPoint.getSignature().toShortString());
+  }
+
+  @Around("@annotation(evict)")
+  public Object evict(ProceedingJoinPoint joinPoint, ReactiveCacheEvict evict) {
+    Mono<Void> eviction = Mono.defer(() -> evict.key().isEmpty()
+        ? reactiveCache.evictByPrefix(evict.prefix())
+        : reactiveCache.evict(evaluateKey(joinPoint, evict.key())));
+    Class<?> returnType = ((MethodSignature) joinPoint.getSignature()).getReturnType();
+    if (Flux.class.isAssignableFrom(returnType)) {
+      return Flux.from(proceed(joinPoint)).concatWith(eviction.then(Mono.empty()));
+    }
+    if (Mono.class.isAssignableFrom(returnType)) {
+      Mono<Object> result = Mono.from(proceed(joinPoint));
+      return result
+          .flatMap(value -> eviction.thenReturn(value))
+          .switchIfEmpty(eviction.then(Mono.empty()));
+    }
+    throw new IllegalStateException("@ReactiveCacheEvict requiere un método que retorne Mono o Flux: "
+        + joinPoint.getSignature().toShortString());
+  }
+
+  /**
+   * Ejecuta el método original; una excepción síncrona se convierte en error
+   * del publisher para que el llamador la reciba por el canal reactivo.
+   */
+  @SuppressWarnings("unchecked")
+  private static Publisher<Object> proceed(ProceedingJoinPoint joinPoint) {
+    try {
+      return (Publisher<Object>) joinPoint.proceed();
+    } catch (Throwable error) {
+      return Mono.error(error);
+    }
+  }
+
+  private static boolean isNotFound(Throwable error) {
+    return error instanceof ResponseStatusException status && status.getStatusCode().isSameCodeAs(HttpStatus.NOT_FOUND);
+  }
+
+  private Object evaluate(ProceedingJoinPoint joinPoint, String expression) {
+    MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+    MethodBasedEvaluationContext context = new MethodBasedEvaluationContext(
+        joinPoint.getTarget(), signature.getMethod(), joinPoint.getArgs(), PARAMETER_NAMES);
+    return expressions.computeIfAbsent(expression, PARSER::parseExpression).getValue(context);
+  }
+
+  private String evaluateKey(ProceedingJoinPoint joinPoint, String expression) {
+    Object key = evaluate(joinPoint, expression);
+    if (key == null) {
+      throw new IllegalArgumentException("La clave de caché '" + expression + "' se evaluó como null");
+    }
+    return key.toString();
+  }
+}
@@ -0,0 +1,32 @@
+package com.clinica.mentalhealth.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Invalida entradas de {@link ReactiveCache} cuando el método reactivo
+ * ({@code Mono} o {@code Flux}) termina con éxito. Si termina con error, el
+ * caché no se toca.
+ *
+ * Indicar {@code key} (expresión SpEL) para una entrada concreta o
+ * {@code prefix} (literal) para varias; {@code "room:"} vacía la región
+ * completa en O(1).
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ReactiveCacheEvict {
+
+  /**
+   * Expresión SpEL de la clave a invalidar.
+   */
+  String key() default "";
+
+  /**
+   * Prefijo literal de las claves a invalidar.
+   */
+  String prefix() default "";
+}
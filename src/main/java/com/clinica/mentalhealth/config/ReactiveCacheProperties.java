@@ -0,0 +1,59 @@
+package com.clinica.mentalhealth.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Políticas de las regiones de {@link ReactiveCache}.
+ *
+ * La región es el prefijo de la clave hasta el primer ':' (ej: "room" en
+ * "room:all"). Una región sin configuración, o con campos vacíos, hereda
+ * los valores de {@code defaults}.
+ */
+@ConfigurationProperties(prefix = "cache.reactive")
+public record ReactiveCacheProperties(
+    Policy defaults,
+    Map<String, Policy> regions) {
+
+  /**
+   * @param softTtl       edad a partir de la cual se sirve el valor y se recarga en segundo plano
+   * @param hardTtl       edad máxima: pasado este tiempo sin una recarga exitosa, la entrada expira
+   * @param maximumWeight peso máximo de la región (una lista pesa según su cantidad de elementos)
+   * @param negativeTtl   duración de un resultado negativo ("no encontrado")
+   */
+  public record Policy(Duration softTtl, Duration hardTtl, Long maximumWeight, Duration negativeTtl) {
+  }
+
+  private static final Policy FALLBACK = new Policy(Duration.ofMinutes(10), Duration.ofMinutes(30), 500L,
+      Duration.ofSeconds(30));
+
+  public ReactiveCacheProperties {
+    defaults = merge(defaults, FALLBACK);
+    regions = regions != null ? Map.copyOf(regions) : Map.of();
+  }
+
+  /**
+   * Nombre de la región a la que pertenece una clave.
+   */
+  public static String regionOf(String key) {
+    int separator = key.indexOf(':');
+    return separator > 0 ? key.substring(0, separator) : key;
+  }
+
+  public Policy policyFor(String region) {
+    return merge(regions.get(region), defaults);
+  }
+
+  private static Policy merge(Policy policy, Policy fallback) {
+    if (policy == null) {
+      return fallback;
+    }
+    return new Policy(
+        policy.softTtl() != null ? policy.softTtl() : fallback.softTtl(),
+        policy.hardTtl() != null ? policy.hardTtl() : fallback.hardTtl(),
+        policy.maximumWeight() != null ? policy.maximumWeight() : fallback.maximumWeight(),
+        policy.negativeTtl() != null ? policy.negativeTtl() : fallback.negativeTtl());
+  }
+}
@@ -0,0 +1,44 @@
+package com.clinica.mentalhealth.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Cachea el resultado de un método reactivo en {@link ReactiveCache}.
+ *
+ * - {@code Mono<T>}: se cachea el valor emitido (un Mono vacío no se cachea).
+ * - {@code Flux<T>}: se cachea como lista y se vuelve a emitir elemento a elemento.
+ *
+ * La clave es una expresión SpEL sobre los parámetros del método; su prefijo
+ * hasta ':' define la región (ej: {@code "'room:' + #id"}).
+ *
+ * Con {@code cacheMisses}, los resultados negativos (Mono vacío, Flux vacío
+ * o {@code ResponseStatusException} 404) se cachean durante el negative TTL
+ * de la región y se reproducen igual en cada hit.
+ *
+ * Como toda anotación basada en proxies, no aplica a llamadas internas
+ * dentro de la misma clase.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ReactiveCacheable {
+
+  /**
+   * Expresión SpEL de la clave.
+   */
+  String key();
+
+  /**
+   * Expresión SpEL: si se evalúa como {@code false}, la llamada no usa el caché.
+   */
+  String condition() default "";
+
+  /**
+   * Cachear también los resultados negativos ("no encontrado").
+   */
+  boolean cacheMisses() default false;
+}
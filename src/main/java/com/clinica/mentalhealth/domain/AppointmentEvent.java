@@ -0,0 +1,16 @@
+package com.clinica.mentalhealth.domain;
+
+/**
+ * Cambio en la agenda publicado por la BD (ver migración V4).
+ */
+public record AppointmentEvent(
+        Type type,
+        Appointment appointment
+) {
+
+    public enum Type {
+        CREATED,
+        CANCELLED,
+        RESCHEDULED
+    }
+}
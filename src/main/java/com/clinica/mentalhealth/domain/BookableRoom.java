@@ -0,0 +1,11 @@
+package com.clinica.mentalhealth.domain;
+
+/**
+ * Sala activa que admite una sesión, con su capacidad efectiva (2 si no
+ * está cargada). Permite aplicar en memoria el mismo orden best-fit que usa
+ * la asignación de salas al reservar.
+ */
+public record BookableRoom(
+        Long id,
+        int capacity
+) {}
@@ -0,0 +1,19 @@
+package com.clinica.mentalhealth.domain;
+
+/**
+ * Resultado compacto de una verificación de conflictos de horario.
+ * Indica qué recurso (psicólogo, paciente o sala) ya está ocupado en el
+ * intervalo consultado, sin transportar las citas completas.
+ */
+public record ResourceConflicts(
+        boolean psychologistBusy,
+        boolean patientBusy,
+        boolean roomBusy
+) {
+
+    public static final ResourceConflicts NONE = new ResourceConflicts(false, false, false);
+
+    public boolean any() {
+        return psychologistBusy || patientBusy || roomBusy;
+    }
+}
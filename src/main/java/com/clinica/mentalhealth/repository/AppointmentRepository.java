@@ -1,10 +1,13 @@
 package com.clinica.mentalhealth.repository;
 
 import com.clinica.mentalhealth.domain.Appointment;
+import com.clinica.mentalhealth.domain.ResourceConflicts;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import java.time.LocalDateTime;
+import java.util.Collection;
 
 public interface AppointmentRepository extends ReactiveCrudRepository<Appointment, Long> {
 
@@ -17,6 +20,103 @@ public interface AppointmentRepository extends ReactiveCrudRepository<Appointmen
     @Query("SELECT * FROM \"appointments\" WHERE room_id = :roomId AND ((start_time < :end) AND (end_time > :start))")
     Flux<Appointment> findRoomConflicts(Long roomId, LocalDateTime start, LocalDateTime end);
 
+    /**
+     * Verifica en un solo round trip si el psicólogo, el paciente o la sala ya
+     * tienen una cita que se solape con el intervalo. Devuelve solo flags
+     * (EXISTS corta en la primera fila encontrada), no filas completas.
+     */
+    @Query("""
+            SELECT
+                EXISTS (SELECT 1 FROM "appointments" WHERE psychologist_id = :psychologistId AND start_time < :end AND end_time > :start) AS psychologist_busy,
+                EXISTS (SELECT 1 FROM "appointments" WHERE patient_id = :patientId AND start_time < :end AND end_time > :start) AS patient_busy,
+                EXISTS (SELECT 1 FROM "appointments" WHERE room_id = :roomId AND start_time < :end AND end_time > :start) AS room_busy
+            """)
+    Mono<ResourceConflicts> findResourceConflicts(Long psychologistId, Long patientId, Long roomId,
+                                                  LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Versión por lotes de {@link #findResourceConflicts}: verifica todos los
+     * intervalos de una serie en una sola consulta (unnest de arrays).
+     * Devuelve una fila por intervalo, en el mismo orden de los arrays.
+     */
+    @Query("""
+            SELECT
+                EXISTS (SELECT 1 FROM "appointments" a WHERE a.psychologist_id = :psychologistId AND a.start_time < s.end_time AND a.end_time > s.start_time) AS psychologist_busy,
+                EXISTS (SELECT 1 FROM "appointments" a WHERE a.patient_id = :patientId AND a.start_time < s.end_time AND a.end_time > s.start_time) AS patient_busy,
+                EXISTS (SELECT 1 FROM "appointments" a WHERE a.room_id = :roomId AND a.start_time < s.end_time AND a.end_time > s.start_time) AS room_busy
+            FROM unnest(CAST(:starts AS timestamp[]), CAST(:ends AS timestamp[])) WITH ORDINALITY AS s(start_time, end_time, idx)
+            ORDER BY s.idx
+            """)
+    Flux<ResourceConflicts> findSeriesConflicts(Long psychologistId, Long patientId, Long roomId,
+                                                LocalDateTime[] starts, LocalDateTime[] ends);
+
+    /**
+     * Inserta todas las sesiones de una serie en una sola sentencia.
+     * Es atómica: si alguna viola un EXCLUDE constraint, no se inserta ninguna.
+     */
+    @Query("""
+            INSERT INTO "appointments" (start_time, end_time, patient_id, psychologist_id, room_id)
+            SELECT s.start_time, s.end_time, :patientId, :psychologistId, :roomId
+            FROM unnest(CAST(:starts AS timestamp[]), CAST(:ends AS timestamp[])) AS s(start_time, end_time)
+            RETURNING *
+            """)
+    Flux<Appointment> insertSeries(Long psychologistId, Long patientId, Long roomId,
+                                   LocalDateTime[] starts, LocalDateTime[] ends);
+
+    /**
+     * Citas de varios psicólogos que se solapan con el rango [from, to).
+     * Una sola consulta alimenta la matriz de disponibilidad de toda la semana.
+     */
+    @Query("""
+            SELECT * FROM "appointments"
+            WHERE psychologist_id IN (:psychologistIds)
+              AND start_time < :to
+              AND end_time > :from
+            """)
+    Flux<Appointment> findByPsychologistIdsOverlapping(Collection<Long> psychologistIds,
+                                                       LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Todo lo que restringe una cita conjunta en el rango [from, to): las citas
+     * del psicólogo, las del paciente y las de cualquier sala activa.
+     */
+    @Query("""
+            SELECT * FROM "appointments"
+            WHERE start_time < :to
+              AND end_time > :from
+              AND (psychologist_id = :psychologistId
+                   OR patient_id = :patientId
+                   OR room_id IN (SELECT id FROM rooms WHERE active))
+            """)
+    Flux<Appointment> findJointScheduleOverlapping(Long psychologistId, Long patientId,
+                                                   LocalDateTime from, LocalDateTime to);
+
+    // --- Paginación keyset: (start_time, id) > cursor, sin OFFSET ---
+
+    @Query("""
+            SELECT * FROM "appointments"
+            WHERE (start_time, id) > (:afterStart, :afterId)
+            ORDER BY start_time, id
+            LIMIT :limit
+            """)
+    Flux<Appointment> findPageAfter(LocalDateTime afterStart, long afterId, int limit);
+
+    @Query("""
+            SELECT * FROM "appointments"
+            WHERE psychologist_id = :psychologistId AND (start_time, id) > (:afterStart, :afterId)
+            ORDER BY start_time, id
+            LIMIT :limit
+            """)
+    Flux<Appointment> findPageByPsychologistIdAfter(Long psychologistId, LocalDateTime afterStart, long afterId, int limit);
+
+    @Query("""
+            SELECT * FROM "appointments"
+            WHERE patient_id = :patientId AND (start_time, id) > (:afterStart, :afterId)
+            ORDER BY start_time, id
+            LIMIT :limit
+            """)
+    Flux<Appointment> findPageByPatientIdAfter(Long patientId, LocalDateTime afterStart, long afterId, int limit);
+
     // NUEVO: Filtros por Rol
     Flux<Appointment> findByPatientId(Long patientId);
     Flux<Appointment> findByPsychologistId(Long psychologistId);
@@ -26,6 +126,8 @@ public interface AppointmentRepository extends ReactiveCrudRepository<Appointmen
     Flux<Appointment> findByPatientIdAndStartTimeAfter(Long patientId, LocalDateTime startTime);
     Flux<Appointment> findByPsychologistIdAndStartTimeAfter(Long psychologistId, LocalDateTime startTime);
     
+    Flux<Appointment> findByEndTimeAfter(LocalDateTime endTime);
+
     Flux<Appointment> findByStartTimeBetween(LocalDateTime start, LocalDateTime end);
     Flux<Appointment> findByPatientIdAndStartTimeBetween(Long patientId, LocalDateTime start, LocalDateTime end);
     Flux<Appointment> findByPsychologistIdAndStartTimeBetween(Long psychologistId, LocalDateTime start, LocalDateTime end);
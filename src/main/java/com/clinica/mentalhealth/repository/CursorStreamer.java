@@ -0,0 +1,41 @@
+package com.clinica.mentalhealth.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.r2dbc.convert.R2dbcConverter;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.util.Map;
+
+/**
+ * Lecturas masivas en streaming con cursor del lado del servidor.
+ *
+ * Con un fetch size, el driver de PostgreSQL pide las filas por lotes
+ * (Execute con límite de filas) a medida que el suscriptor las solicita, en
+ * lugar de recibir la tabla completa. Junto con una respuesta NDJSON/SSE, la
+ * contrapresión llega desde el socket HTTP hasta el cursor: la memoria queda
+ * plana y la primera fila sale sin esperar a que termine la consulta.
+ *
+ * Las filas se mapean con el mismo R2dbcConverter que usan los repositorios.
+ */
+@Component
+@RequiredArgsConstructor
+public class CursorStreamer {
+
+    private final DatabaseClient databaseClient;
+    private final R2dbcConverter converter;
+
+    @Value("${streaming.fetch-size:500}")
+    private int fetchSize;
+
+    public <T> Flux<T> stream(Class<T> type, String sql, Map<String, Object> bindings) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql)
+                .filter(statement -> statement.fetchSize(fetchSize));
+        for (Map.Entry<String, Object> binding : bindings.entrySet()) {
+            spec = spec.bind(binding.getKey(), binding.getValue());
+        }
+        return spec.map((row, metadata) -> converter.read(type, row, metadata)).all();
+    }
+}
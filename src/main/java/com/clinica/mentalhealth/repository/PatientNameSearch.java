@@ -0,0 +1,51 @@
+package com.clinica.mentalhealth.repository;
+
+import com.clinica.mentalhealth.domain.Patient;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.r2dbc.convert.R2dbcConverter;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+/**
+ * Búsqueda fuzzy de pacientes por nombre con pg_trgm, apoyada en índice.
+ *
+ * Un filtro {@code similarity(...) > x} no puede usar índices: calcula la
+ * similitud de cada fila. El operador {@code %} sí (compara contra
+ * {@code pg_trgm.similarity_threshold}), y el índice GiST de V6 además
+ * entrega las filas ordenadas por distancia ({@code <->}, KNN), así que el
+ * LIMIT corta el recorrido sin ordenar todos los candidatos.
+ *
+ * El umbral ({@code search.similarity-threshold}) se fija una vez por
+ * conexión (ver {@code R2dbcSessionConfig}): cada búsqueda es un solo SELECT.
+ */
+@Component
+@RequiredArgsConstructor
+public class PatientNameSearch {
+
+    static final String SEARCH_SQL = """
+            SELECT * FROM "patients"
+            WHERE LOWER(name) % LOWER(:name)
+            ORDER BY LOWER(name) <-> LOWER(:name)
+            LIMIT :limit
+            """;
+
+    private final DatabaseClient databaseClient;
+    private final R2dbcConverter converter;
+
+    @Value("${search.patients.max-results:20}")
+    private int maxResults;
+
+    /**
+     * Pacientes cuyo nombre se parece a {@code name}, del más al menos parecido.
+     * Encuentra pacientes aunque haya errores tipográficos (ej: "Gonsales" → "González").
+     */
+    public Flux<Patient> findByName(String name) {
+        return databaseClient.sql(SEARCH_SQL)
+                .bind("name", name)
+                .bind("limit", maxResults)
+                .map((row, metadata) -> converter.read(Patient.class, row, metadata))
+                .all();
+    }
+}
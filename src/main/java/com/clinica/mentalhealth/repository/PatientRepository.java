@@ -16,17 +16,11 @@ public interface PatientRepository extends ReactiveCrudRepository<Patient, Long>
 
     Mono<Boolean> existsByDni(String dni);
 
-    /**
-     * Búsqueda fuzzy usando pg_trgm con similarity() explícito
-     * Usamos threshold 0.1 hardcodeado para garantizar tolerancia
-     * Encuentra pacientes aunque haya errores tipográficos en el nombre
-     * Ejemplo: "Gonsales" encontrará "González"
-     */
-    @Query("""
-            SELECT * FROM "patients"
-            WHERE similarity(LOWER(name), LOWER(:name)) > 0.1
-            ORDER BY LOWER(name) <-> LOWER(:name) ASC
-            LIMIT 20
-            """)
-    Flux<Patient> findByNameLike(String name);
+    // --- Paginación keyset (sin OFFSET) ---
+
+    @Query("SELECT * FROM \"patients\" WHERE id > :afterId ORDER BY id LIMIT :limit")
+    Flux<Patient> findPageOrderById(long afterId, int limit);
+
+    @Query("SELECT * FROM \"patients\" WHERE (name, id) > (:afterName, :afterId) ORDER BY name, id LIMIT :limit")
+    Flux<Patient> findPageOrderByName(String afterName, long afterId, int limit);
 }
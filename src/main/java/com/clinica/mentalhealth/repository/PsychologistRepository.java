@@ -1,7 +1,17 @@
 package com.clinica.mentalhealth.repository;
 
 import com.clinica.mentalhealth.domain.Psychologist;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
 
 public interface PsychologistRepository extends ReactiveCrudRepository<Psychologist, Long> {
-}
\ No newline at end of file
+
+    // --- Paginación keyset (sin OFFSET) ---
+
+    @Query("SELECT * FROM \"psychologists\" WHERE id > :afterId ORDER BY id LIMIT :limit")
+    Flux<Psychologist> findPageOrderById(long afterId, int limit);
+
+    @Query("SELECT * FROM \"psychologists\" WHERE (name, id) > (:afterName, :afterId) ORDER BY name, id LIMIT :limit")
+    Flux<Psychologist> findPageOrderByName(String afterName, long afterId, int limit);
+}
@@ -0,0 +1,70 @@
+package com.clinica.mentalhealth.repository;
+
+import com.clinica.mentalhealth.domain.Psychologist;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.r2dbc.convert.R2dbcConverter;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Búsqueda de psicólogos por nombre (fuzzy, pg_trgm) y/o especialidad (exacta).
+ *
+ * El WHERE se arma solo con los filtros presentes: un
+ * {@code (:specialty IS NULL OR specialty = :specialty)} obligaría al planner
+ * a un plan genérico que no usa índices. Así, el nombre va por
+ * {@code trgm_idx_psychologists_name} (operador {@code %}, GIN) y la
+ * especialidad por {@code idx_psychologists_specialty}.
+ *
+ * Como en {@link PatientNameSearch}, el umbral de similitud ya viene fijado
+ * en la conexión: cada búsqueda es un solo SELECT.
+ */
+@Component
+@RequiredArgsConstructor
+public class PsychologistSearch {
+
+    static final String NAME_FILTER = "LOWER(name) % LOWER(:name)";
+    static final String SPECIALTY_FILTER = "specialty = :specialty";
+
+    private final DatabaseClient databaseClient;
+    private final R2dbcConverter converter;
+
+    /**
+     * Psicólogos que cumplen los filtros dados ({@code null} = sin filtro).
+     * Con nombre, ordenados del más al menos parecido; si no, por nombre.
+     */
+    public Flux<Psychologist> search(String name, String specialty, int limit) {
+        String sql = sqlFor(name != null, specialty != null);
+        return Flux.defer(() -> {
+            DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql).bind("limit", limit);
+            if (name != null) {
+                spec = spec.bind("name", name);
+            }
+            if (specialty != null) {
+                spec = spec.bind("specialty", specialty);
+            }
+            return spec.map((row, metadata) -> converter.read(Psychologist.class, row, metadata)).all();
+        });
+    }
+
+    static String sqlFor(boolean byName, boolean bySpecialty) {
+        List<String> filters = new ArrayList<>();
+        if (byName) {
+            filters.add(NAME_FILTER);
+        }
+        if (bySpecialty) {
+            filters.add(SPECIALTY_FILTER);
+        }
+        StringBuilder sql = new StringBuilder("SELECT * FROM \"psychologists\"");
+        if (!filters.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", filters));
+        }
+        sql.append(byName
+                ? " ORDER BY similarity(LOWER(name), LOWER(:name)) DESC, id"
+                : " ORDER BY name, id");
+        return sql.append(" LIMIT :limit").toString();
+    }
+}
@@ -1,7 +1,72 @@
 package com.clinica.mentalhealth.repository;
 
+import com.clinica.mentalhealth.domain.BookableRoom;
 import com.clinica.mentalhealth.domain.Room;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
 
 public interface RoomRepository extends ReactiveCrudRepository<Room, Long> {
-}
\ No newline at end of file
+
+    /**
+     * Salas que {@link #findBestFitRoom} podría elegir, en su orden best-fit
+     * (menor capacidad suficiente, luego ID).
+     */
+    @Query("""
+            SELECT id, COALESCE(capacity, 2) AS capacity FROM rooms
+            WHERE active AND COALESCE(capacity, 2) >= :minCapacity
+            ORDER BY COALESCE(capacity, 2), id
+            """)
+    Flux<BookableRoom> findBookable(int minCapacity);
+
+    // Paginación keyset (sin OFFSET)
+    @Query("SELECT * FROM rooms WHERE id > :afterId ORDER BY id LIMIT :limit")
+    Flux<Room> findPageOrderById(long afterId, int limit);
+
+    /**
+     * Elige una sala activa y libre para [start, end) con política best-fit:
+     * 1. La de menor capacidad suficiente (no gastar salas grandes en sesiones individuales).
+     * 2. A igual capacidad, la que ya tiene una cita pegada al intervalo, para
+     *    no partir huecos libres largos en otras salas (menor fragmentación).
+     * 3. Desempate estable por ID.
+     */
+    @Query("""
+            SELECT r.* FROM rooms r
+            WHERE r.active
+              AND COALESCE(r.capacity, 2) >= :minCapacity
+              AND NOT EXISTS (
+                  SELECT 1 FROM appointments a
+                  WHERE a.room_id = r.id AND a.start_time < :end AND a.end_time > :start)
+            ORDER BY COALESCE(r.capacity, 2),
+                     CASE WHEN EXISTS (
+                         SELECT 1 FROM appointments a
+                         WHERE a.room_id = r.id AND (a.end_time = :start OR a.start_time = :end))
+                     THEN 0 ELSE 1 END,
+                     r.id
+            LIMIT 1
+            """)
+    Mono<Room> findBestFitRoom(LocalDateTime start, LocalDateTime end, int minCapacity);
+
+    /**
+     * Elige la sala activa con menos choques para todos los intervalos de una
+     * serie (una sola consulta). Con igual número de choques aplica best-fit.
+     */
+    @Query("""
+            SELECT r.* FROM rooms r
+            WHERE r.active
+              AND COALESCE(r.capacity, 2) >= :minCapacity
+            ORDER BY (
+                  SELECT COUNT(*)
+                  FROM unnest(CAST(:starts AS timestamp[]), CAST(:ends AS timestamp[])) AS s(start_time, end_time)
+                  WHERE EXISTS (
+                      SELECT 1 FROM appointments a
+                      WHERE a.room_id = r.id AND a.start_time < s.end_time AND a.end_time > s.start_time)),
+                     COALESCE(r.capacity, 2),
+                     r.id
+            LIMIT 1
+            """)
+    Mono<Room> findBestFitRoomForSeries(LocalDateTime[] starts, LocalDateTime[] ends, int minCapacity);
+}
@@ -0,0 +1,164 @@
+package com.clinica.mentalhealth.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Locale;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Registro de logins fallidos por username, con bloqueo exponencial.
+ *
+ * El límite por IP de {@code RateLimitConfig} no frena un credential
+ * stuffing distribuido contra un mismo usuario. Aquí se cuentan los fallos de
+ * cada username en una ventana deslizante: al llegar a {@code maxFailures} el
+ * username queda bloqueado {@code baseLockout}, y cada fallo adicional dentro
+ * de la ventana duplica el bloqueo (hasta {@code maxLockout}).
+ *
+ * La consulta ocurre antes de ir a la BD o a BCrypt, así que un intento
+ * bloqueado cuesta una búsqueda en memoria. El estado vive en un caché
+ * Caffeine acotado ({@code maxTrackedUsers}) para que inventar usernames no
+ * agote la memoria. Es por instancia: con N instancias, un atacante obtiene
+ * como mucho N veces los intentos.
+ */
+@Slf4j
+@Component
+public class LoginAttemptTracker {
+
+  static final String METRIC_REJECTED = "auth.login.locked";
+
+  /** Suficiente para duplicar el bloqueo más de 30 veces. */
+  private static final int MAX_REMEMBERED_FAILURES = 64;
+
+  private final Ticker ticker;
+  private final int maxFailures;
+  private final long windowNanos;
+  private final long baseLockoutNanos;
+  private final long maxLockoutNanos;
+  private final Cache<String, Attempts> attempts;
+  private final Counter rejected;
+
+  @Autowired
+  public LoginAttemptTracker(
+    MeterRegistry meterRegistry,
+    @Value("${security.login-attempts.max-failures:5}") int maxFailures,
+    @Value("${security.login-attempts.window:PT15M}") Duration window,
+    @Value("${security.login-attempts.base-lockout:PT30S}") Duration baseLockout,
+    @Value("${security.login-attempts.max-lockout:PT15M}") Duration maxLockout,
+    @Value("${security.login-attempts.max-tracked-users:100000}") long maxTrackedUsers
+  ) {
+    this(meterRegistry, maxFailures, window, baseLockout, maxLockout, maxTrackedUsers, Ticker.systemTicker());
+  }
+
+  LoginAttemptTracker(
+    MeterRegistry meterRegistry,
+    int maxFailures,
+    Duration window,
+    Duration baseLockout,
+    Duration maxLockout,
+    long maxTrackedUsers,
+    Ticker ticker
+  ) {
+    this.ticker = ticker;
+    this.maxFailures = Math.max(1, maxFailures);
+    this.windowNanos = window.toNanos();
+    this.baseLockoutNanos = baseLockout.toNanos();
+    this.maxLockoutNanos = maxLockout.toNanos();
+    // Una entrada sin fallos recientes ni bloqueo vigente ya no aporta nada
+    this.attempts = Caffeine.newBuilder()
+      .ticker(ticker)
+      .maximumSize(maxTrackedUsers)
+      .expireAfterAccess(Duration.ofNanos(Math.max(windowNanos, maxLockoutNanos)))
+      .build();
+    this.rejected = Counter.builder(METRIC_REJECTED)
+      .description("Logins rechazados por bloqueo del username, sin consultar BD ni BCrypt")
+      .register(meterRegistry);
+  }
+
+  /**
+   * Tiempo que le queda de bloqueo al username, o {@link Duration#ZERO} si
+   * puede intentar.
+   */
+  public Duration lockoutRemaining(String username) {
+    Attempts current = attempts.getIfPresent(keyOf(username));
+    if (current == null) {
+      return Duration.ZERO;
+    }
+    long remaining = current.remainingLockout(ticker.read());
+    if (remaining <= 0) {
+      return Duration.ZERO;
+    }
+    rejected.increment();
+    return Duration.ofNanos(remaining);
+  }
+
+  public void recordFailure(String username) {
+    String key = keyOf(username);
+    Attempts current = attempts.get(key, k -> new Attempts());
+    int failures = current.fail(ticker.read(), windowNanos, maxFailures, baseLockoutNanos, maxLockoutNanos);
+    if (failures >= maxFailures) {
+      log.warn("Username '{}' bloqueado tras {} logins fallidos", key, failures);
+    }
+  }
+
+  public void recordSuccess(String username) {
+    attempts.invalidate(keyOf(username));
+  }
+
+  private static String keyOf(String username) {
+    return username == null ? "" : username.trim().toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Fallos recientes de un username (instantes del {@link Ticker}).
+   *
+   * El origen del ticker es arbitrario (puede ser negativo), así que los
+   * instantes solo se comparan por diferencia y "sin bloqueo" es un estado
+   * explícito, no un valor centinela.
+   */
+  private static final class Attempts {
+
+    private final Deque<Long> failures = new ArrayDeque<>();
+    private boolean locked;
+    private long lockedUntil;
+
+    /**
+     * @return nanos de bloqueo restantes; 0 o negativo si no está bloqueado
+     */
+    synchronized long remainingLockout(long now) {
+      return locked ? lockedUntil - now : 0;
+    }
+
+    /**
+     * @return cantidad de fallos dentro de la ventana, incluido este
+     */
+    synchronized int fail(long now, long window, int maxFailures, long baseLockout, long maxLockout) {
+      while (!failures.isEmpty() && now - failures.peekFirst() > window) {
+        failures.pollFirst();
+      }
+      failures.addLast(now);
+      if (failures.size() > MAX_REMEMBERED_FAILURES) {
+        failures.pollFirst();
+      }
+      int count = failures.size();
+      if (count >= maxFailures) {
+        int doublings = Math.min(count - maxFailures, 62);
+        long lockout = baseLockout > maxLockout >> doublings ? maxLockout : baseLockout << doublings;
+        long until = now + Math.min(lockout, maxLockout);
+        if (!locked || until - lockedUntil > 0) {
+          lockedUntil = until;
+          locked = true;
+        }
+      }
+      return count;
+    }
+  }
+}
@@ -0,0 +1,128 @@
+package com.clinica.mentalhealth.security;
+
+import com.clinica.mentalhealth.web.exception.ServiceBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * Hash y verificación de contraseñas fuera del event loop.
+ *
+ * BCrypt consume decenas de milisegundos de CPU por llamada: ejecutado en un
+ * hilo de Netty bloquea todas las conexiones de ese loop. Aquí corre en un
+ * pool propio, del tamaño de los núcleos, con una cola acotada. Si la cola se
+ * llena (ej: una ráfaga de logins), la petición se rechaza de inmediato con
+ * 503 en lugar de acumular latencia para el resto de la API.
+ *
+ * Métricas: {@code password.hashing} (latencia por operación),
+ * {@code password.hashing.queue} (tareas en espera),
+ * {@code password.hashing.active} y {@code password.hashing.rejected}.
+ */
+@Slf4j
+@Service
+public class PasswordHashingService {
+
+  static final String METRIC_LATENCY = "password.hashing";
+  static final String METRIC_QUEUE = "password.hashing.queue";
+  static final String METRIC_ACTIVE = "password.hashing.active";
+  static final String METRIC_REJECTED = "password.hashing.rejected";
+
+  private static final Duration RETRY_AFTER = Duration.ofSeconds(1);
+
+  private final PasswordEncoder passwordEncoder;
+  private final ThreadPoolExecutor executor;
+  private final Timer encodeTimer;
+  private final Timer matchesTimer;
+  private final Counter rejected;
+
+  public PasswordHashingService(
+    PasswordEncoder passwordEncoder,
+    MeterRegistry meterRegistry,
+    @Value("${security.password-hashing.threads:0}") int threads,
+    @Value("${security.password-hashing.queue-capacity:64}") int queueCapacity
+  ) {
+    this.passwordEncoder = passwordEncoder;
+    int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("password-hash-");
+    threadFactory.setDaemon(true);
+    this.executor = new ThreadPoolExecutor(
+      poolSize,
+      poolSize,
+      0L,
+      TimeUnit.MILLISECONDS,
+      new ArrayBlockingQueue<>(queueCapacity),
+      threadFactory,
+      new ThreadPoolExecutor.AbortPolicy()
+    );
+
+    this.encodeTimer = Timer.builder(METRIC_LATENCY)
+      .tag("operation", "encode")
+      .description("Tiempo de CPU de cada hash de contraseña")
+      .register(meterRegistry);
+    this.matchesTimer = Timer.builder(METRIC_LATENCY)
+      .tag("operation", "matches")
+      .description("Tiempo de CPU de cada verificación de contraseña")
+      .register(meterRegistry);
+    this.rejected = Counter.builder(METRIC_REJECTED)
+      .description("Operaciones rechazadas por cola de hashing llena")
+      .register(meterRegistry);
+    Gauge.builder(METRIC_QUEUE, executor, pool -> pool.getQueue().size())
+      .description("Operaciones de hashing en espera")
+      .register(meterRegistry);
+    Gauge.builder(METRIC_ACTIVE, executor, ThreadPoolExecutor::getActiveCount)
+      .description("Hilos de hashing ocupados")
+      .register(meterRegistry);
+  }
+
+  /**
+   * Hash de una contraseña nueva.
+   *
+   * @return error {@link ServiceBusyException} si el pool está saturado
+   */
+  public Mono<String> encode(String rawPassword) {
+    return submit(encodeTimer, () -> passwordEncoder.encode(rawPassword));
+  }
+
+  /**
+   * Verifica una contraseña contra su hash.
+   *
+   * @return error {@link ServiceBusyException} si el pool está saturado
+   */
+  public Mono<Boolean> matches(String rawPassword, String encodedPassword) {
+    return submit(matchesTimer, () -> passwordEncoder.matches(rawPassword, encodedPassword));
+  }
+
+  private <T> Mono<T> submit(Timer timer, Supplier<T> task) {
+    return Mono.defer(() -> {
+      try {
+        return Mono.fromFuture(CompletableFuture.supplyAsync(() -> timer.record(task), executor));
+      } catch (RejectedExecutionException e) {
+        rejected.increment();
+        log.warn("Cola de hashing llena ({} en espera), operación rechazada", executor.getQueue().size());
+        return Mono.error(new ServiceBusyException(
+          "El servidor está procesando demasiadas autenticaciones. Intente nuevamente en unos segundos.",
+          RETRY_AFTER));
+      }
+    });
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdown();
+  }
+}
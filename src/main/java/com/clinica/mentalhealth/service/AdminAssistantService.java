@@ -118,7 +118,8 @@ public class AdminAssistantService {
                 B. PROCESO DE AGENDAMIENTO:
                    Paso 1: Usa calculateDateTool para obtener la fecha ISO
                    Paso 2: Busca al paciente con searchPatientTool (o créalo si no existe)
-                   Paso 3: Verifica disponibilidad con checkAvailabilityTool (recomendado)
+                           y, si no tienes su ID, al psicólogo con searchPsychologistsTool
+                   Paso 3: Busca un horario libre con findJointSlotsTool (psicólogo, paciente y sala)
                    Paso 4: Usa bookAppointmentTool con los IDs obtenidos
                    
                 C. CONTEXTO DEL PSICÓLOGO:
@@ -0,0 +1,44 @@
+package com.clinica.mentalhealth.service;
+
+import com.clinica.mentalhealth.config.PostgresNotifications;
+import com.clinica.mentalhealth.domain.AppointmentEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+/**
+ * Stream de cambios de citas de todas las instancias, alimentado por el
+ * trigger {@code notify_appointment_change} vía LISTEN/NOTIFY.
+ */
+@Slf4j
+@Component
+public class AppointmentEventFeed {
+
+    static final String CHANNEL = "appointment_events";
+
+    private final Flux<AppointmentEvent> events;
+
+    public AppointmentEventFeed(PostgresNotifications notifications, ObjectMapper objectMapper) {
+        this.events = notifications.listen(CHANNEL)
+                .mapNotNull(payload -> parse(objectMapper, payload))
+                .share();
+    }
+
+    /**
+     * Eventos en caliente (sin historial): solo llegan los posteriores a la suscripción.
+     */
+    public Flux<AppointmentEvent> events() {
+        return events;
+    }
+
+    private static AppointmentEvent parse(ObjectMapper objectMapper, String payload) {
+        try {
+            return objectMapper.readValue(payload, AppointmentEvent.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Notificación de cita ignorada (payload inválido): {}", payload);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.clinica.mentalhealth.service;
+
+import com.clinica.mentalhealth.domain.Appointment;
+import com.clinica.mentalhealth.domain.AppointmentEvent;
+import com.clinica.mentalhealth.domain.ResourceConflicts;
+import com.clinica.mentalhealth.repository.AppointmentRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+
+/**
+ * Índice de intervalos en memoria para detección de conflictos de citas.
+ *
+ * Mantiene, por cada psicólogo, paciente y sala, un mapa ordenado por hora de
+ * inicio. Como los EXCLUDE constraints de PostgreSQL garantizan que las citas
+ * de un mismo recurso nunca se solapan, basta con mirar la cita que empieza
+ * justo antes del fin del intervalo consultado: O(log n) sin tocar la BD.
+ *
+ * Se carga desde la tabla "appointments" (desde el inicio del día en adelante)
+ * al arrancar, se actualiza en cada creación/cancelación, aplica los cambios
+ * de otras instancias que llegan por LISTEN/NOTIFY y se resincroniza
+ * periódicamente para absorber notificaciones perdidas. Los cambios que
+ * llegan mientras una recarga lee la tabla se repiten sobre el estado nuevo
+ * antes de publicarlo, para que no se pierdan con el reemplazo.
+ *
+ * El índice es una optimización, no la fuente de verdad:
+ * - Si dice "libre", la inserción sigue protegida por los EXCLUDE constraints.
+ * - Si dice "ocupado", el servicio confirma contra la BD antes de rechazar.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AppointmentIntervalIndex {
+
+    private final AppointmentRepository appointmentRepository;
+    private final AppointmentEventFeed eventFeed;
+
+    private volatile State state = State.empty(null);
+    private volatile Disposable changeSubscription;
+    /** Cambios aplicados durante la recarga en curso, o {@code null} si no hay ninguna. */
+    private List<Consumer<State>> pendingDuringReload;
+    private final Object lock = new Object();
+
+    /**
+     * Indica si el índice es autoritativo para un intervalo que empieza en
+     * {@code start}. Antes de la primera carga, o para fechas anteriores a la
+     * ventana cargada, hay que consultar la BD.
+     */
+    public boolean covers(LocalDateTime start) {
+        LocalDateTime coveredFrom = state.coveredFrom;
+        return coveredFrom != null && start != null && !start.isBefore(coveredFrom);
+    }
+
+    /**
+     * Verifica en memoria qué recursos de la cita ya están ocupados.
+     */
+    public ResourceConflicts findConflicts(Appointment appointment) {
+        State current = state;
+        LocalDateTime start = appointment.startTime();
+        LocalDateTime end = appointment.endTime();
+        return new ResourceConflicts(
+                overlaps(timeline(current.byPsychologist, appointment.psychologistId()), start, end),
+                overlaps(timeline(current.byPatient, appointment.patientId()), start, end),
+                overlaps(timeline(current.byRoom, appointment.roomId()), start, end));
+    }
+
+    /**
+     * Registra una cita recién persistida.
+     */
+    public void add(Appointment appointment) {
+        if (appointment.id() == null || appointment.startTime() == null) {
+            return;
+        }
+        change(current -> current.add(appointment));
+    }
+
+    /**
+     * Elimina una cita cancelada del índice.
+     */
+    public void remove(Appointment appointment) {
+        if (appointment.id() == null || appointment.startTime() == null) {
+            return;
+        }
+        change(current -> current.remove(appointment));
+    }
+
+    private void change(Consumer<State> change) {
+        synchronized (lock) {
+            change.accept(state);
+            if (pendingDuringReload != null) {
+                pendingDuringReload.add(change);
+            }
+        }
+    }
+
+    /**
+     * Reconstruye el índice desde la BD y lo publica de forma atómica.
+     */
+    public Mono<Void> reload() {
+        return Mono.defer(() -> {
+            List<Consumer<State>> pending = new ArrayList<>();
+            // Se registra antes de leer la tabla: lo que cambie desde aquí se repite sobre "fresh"
+            synchronized (lock) {
+                if (pendingDuringReload != null) {
+                    log.debug("Recarga del índice de citas ya en curso");
+                    return Mono.<Void>empty();
+                }
+                pendingDuringReload = pending;
+            }
+            LocalDateTime coveredFrom = LocalDate.now().atStartOfDay();
+            State fresh = State.empty(coveredFrom);
+            return appointmentRepository.findByEndTimeAfter(coveredFrom)
+                    .doOnNext(fresh::add)
+                    .then(Mono.<Void>fromRunnable(() -> {
+                        synchronized (lock) {
+                            pending.forEach(change -> change.accept(fresh));
+                            state = fresh;
+                            pendingDuringReload = null;
+                        }
+                        log.debug("Índice de citas cargado: {} citas desde {}", fresh.byId.size(), coveredFrom);
+                    }))
+                    .doFinally(signal -> {
+                        synchronized (lock) {
+                            if (pendingDuringReload == pending) {
+                                pendingDuringReload = null;
+                            }
+                        }
+                    });
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload().subscribe(
+                null,
+                error -> log.warn("No se pudo cargar el índice de citas, se usará la BD: {}", error.getMessage()));
+    }
+
+    /**
+     * Aplica los cambios publicados por la BD (propios y de otras instancias).
+     */
+    public void apply(AppointmentEvent event) {
+        if (event.appointment() == null) {
+            return;
+        }
+        if (event.type() == AppointmentEvent.Type.CANCELLED) {
+            remove(event.appointment());
+        } else {
+            add(event.appointment());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void followChanges() {
+        changeSubscription = eventFeed.events().subscribe(
+                this::apply,
+                error -> log.warn("Se dejó de seguir los cambios de citas: {}", error.getMessage()));
+    }
+
+    @PreDestroy
+    public void stopFollowingChanges() {
+        Disposable subscription = changeSubscription;
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${appointments.index.resync-interval:PT5M}",
+            initialDelayString = "${appointments.index.resync-interval:PT5M}")
+    public void resync() {
+        loadOnStartup();
+    }
+
+    private static NavigableMap<LocalDateTime, Appointment> timeline(
+            Map<Long, NavigableMap<LocalDateTime, Appointment>> index, Long resourceId) {
+        return resourceId != null ? index.get(resourceId) : null;
+    }
+
+    private static boolean overlaps(NavigableMap<LocalDateTime, Appointment> timeline,
+                                    LocalDateTime start, LocalDateTime end) {
+        if (timeline == null) {
+            return false;
+        }
+        // Las citas de un recurso no se solapan: la que empieza justo antes de
+        // "end" es la única candidata a terminar después de "start".
+        Map.Entry<LocalDateTime, Appointment> candidate = timeline.lowerEntry(end);
+        return candidate != null && candidate.getValue().endTime().isAfter(start);
+    }
+
+    /**
+     * Estado inmutable en su estructura (los mapas sí son concurrentes) para
+     * poder reemplazarlo completo tras una recarga.
+     */
+    private record State(
+            LocalDateTime coveredFrom,
+            Map<Long, Appointment> byId,
+            Map<Long, NavigableMap<LocalDateTime, Appointment>> byPsychologist,
+            Map<Long, NavigableMap<LocalDateTime, Appointment>> byPatient,
+            Map<Long, NavigableMap<LocalDateTime, Appointment>> byRoom) {
+
+        static State empty(LocalDateTime coveredFrom) {
+            return new State(coveredFrom, new ConcurrentHashMap<>(), new ConcurrentHashMap<>(),
+                    new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+        }
+
+        void add(Appointment appointment) {
+            Appointment previous = byId.put(appointment.id(), appointment);
+            if (previous != null) {
+                unlink(previous);
+            }
+            link(byPsychologist, appointment.psychologistId(), appointment);
+            link(byPatient, appointment.patientId(), appointment);
+            link(byRoom, appointment.roomId(), appointment);
+        }
+
+        void remove(Appointment appointment) {
+            Appointment previous = byId.remove(appointment.id());
+            unlink(previous != null ? previous : appointment);
+        }
+
+        private void unlink(Appointment appointment) {
+            unlink(byPsychologist, appointment.psychologistId(), appointment);
+            unlink(byPatient, appointment.patientId(), appointment);
+            unlink(byRoom, appointment.roomId(), appointment);
+        }
+
+        private static void link(Map<Long, NavigableMap<LocalDateTime, Appointment>> index,
+                                 Long resourceId, Appointment appointment) {
+            if (resourceId != null) {
+                index.computeIfAbsent(resourceId, id -> new ConcurrentSkipListMap<>())
+                        .put(appointment.startTime(), appointment);
+            }
+        }
+
+        private static void unlink(Map<Long, NavigableMap<LocalDateTime, Appointment>> index,
+                                   Long resourceId, Appointment appointment) {
+            if (resourceId == null) {
+                return;
+            }
+            NavigableMap<LocalDateTime, Appointment> timeline = index.get(resourceId);
+            if (timeline != null) {
+                // Solo quitar si el slot sigue perteneciendo a esta cita
+                timeline.computeIfPresent(appointment.startTime(),
+                        (start, current) -> current.id().equals(appointment.id()) ? null : current);
+            }
+        }
+    }
+}
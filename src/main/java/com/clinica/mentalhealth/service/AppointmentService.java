@@ -1,8 +1,21 @@
 package com.clinica.mentalhealth.service;
 
 import com.clinica.mentalhealth.domain.Appointment;
+import com.clinica.mentalhealth.domain.AppointmentEvent;
+import com.clinica.mentalhealth.domain.BookableRoom;
+import com.clinica.mentalhealth.domain.ResourceConflicts;
 import com.clinica.mentalhealth.repository.AppointmentRepository;
+import com.clinica.mentalhealth.repository.CursorStreamer;
+import com.clinica.mentalhealth.repository.RoomRepository;
+import com.clinica.mentalhealth.repository.TableStatistics;
 import com.clinica.mentalhealth.security.UserPrincipal;
+import com.clinica.mentalhealth.web.dto.AppointmentSeriesReport;
+import com.clinica.mentalhealth.web.dto.AvailabilityMatrix;
+import com.clinica.mentalhealth.web.dto.CursorPage;
+import com.clinica.mentalhealth.web.dto.SlotCandidate;
+import com.clinica.mentalhealth.web.dto.AppointmentSeriesReport.Occurrence;
+import com.clinica.mentalhealth.web.dto.AppointmentSeriesReport.Status;
+import com.clinica.mentalhealth.web.dto.AppointmentSeriesRequest;
 import com.clinica.mentalhealth.web.exception.ConflictException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -12,12 +25,19 @@ import org.springframework.security.core.context.ReactiveSecurityContextHolder;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
-import static java.time.DayOfWeek.SUNDAY;
 import static com.clinica.mentalhealth.domain.Role.*;
 
 @Slf4j
@@ -26,15 +46,35 @@ import static com.clinica.mentalhealth.domain.Role.*;
 public class AppointmentService {
 
     private final AppointmentRepository appointmentRepository;
-
-    private static final LocalTime OPENING_TIME = LocalTime.of(8, 0);
-    private static final LocalTime CLOSING_TIME = LocalTime.of(22, 0);
+    private final AppointmentIntervalIndex intervalIndex;
+    private final RoomRepository roomRepository;
+    private final CursorStreamer cursorStreamer;
+    private final TableStatistics tableStatistics;
+    private final AppointmentEventFeed eventFeed;
 
     // Usar Role enum directamente para evitar strings mágicos y errores de tipeo
     private static final String ADMIN_ROLE = ROLE_ADMIN.name();
     private static final String PSYCHOLOGIST_ROLE = ROLE_PSYCHOLOGIST.name();
     private static final String PATIENT_ROLE = ROLE_PATIENT.name();
 
+    // Tope de sesiones por serie (un año de terapia semanal)
+    private static final int MAX_SERIES_OCCURRENCES = 52;
+
+    // Paginación keyset: la primera página arranca antes de cualquier cita posible
+    private static final String APPOINTMENT_CURSOR = "start";
+    private static final LocalDateTime KEYSET_FIRST_START = LocalDateTime.of(1, 1, 1, 0, 0);
+
+    // Una sesión individual: psicólogo + paciente
+    private static final int MIN_ROOM_CAPACITY = 2;
+
+    // Límites de la matriz de disponibilidad (un mes, una clínica grande)
+    private static final int MAX_MATRIX_DAYS = 31;
+    private static final int MAX_MATRIX_PSYCHOLOGISTS = 50;
+
+    // Límites del buscador de horarios conjuntos
+    private static final int MAX_SLOT_SEARCH_WEEKS = 8;
+    private static final int MAX_SLOT_CANDIDATES = 20;
+
     // Helper to obtain current user reactively
     private Mono<UserPrincipal> currentUser() {
         return ReactiveSecurityContextHolder.getContext()
@@ -56,9 +96,10 @@ public class AppointmentService {
     }
 
     // Make parsing reactive and avoid try/catch on reactive flows
-    public Mono<Appointment> createFromAi(Long patientId, Long psychologistId, String dateString) {
+    // roomId es opcional: si es null se asigna automáticamente una sala libre
+    public Mono<Appointment> createFromAi(Long patientId, Long psychologistId, String dateString, Long roomId) {
         return Mono.fromCallable(() -> LocalDateTime.parse(dateString))
-                .map(start -> new Appointment(null, start, start.plusHours(1), patientId, psychologistId, 1L))
+                .map(start -> new Appointment(null, start, start.plusHours(1), patientId, psychologistId, roomId))
                 .flatMap(this::processAppointment)
                 .onErrorMap(e -> new IllegalArgumentException("Error al procesar datos de la IA: " + e.getMessage()));
     }
@@ -79,6 +120,95 @@ public class AppointmentService {
                 });
     }
 
+    /**
+     * Igual que {@link #getMyAppointments()}, pero leyendo con cursor para los
+     * listados NDJSON/SSE (ver {@link CursorStreamer}). Orden estable por ID.
+     */
+    public Flux<Appointment> streamMyAppointments() {
+        return currentUser()
+                .flatMapMany(user -> {
+                    if (ADMIN_ROLE.equals(user.role())) {
+                        return cursorStreamer.stream(Appointment.class,
+                                "SELECT * FROM appointments ORDER BY id", Map.of());
+                    }
+                    if (PSYCHOLOGIST_ROLE.equals(user.role())) {
+                        return cursorStreamer.stream(Appointment.class,
+                                "SELECT * FROM appointments WHERE psychologist_id = :id ORDER BY id",
+                                Map.of("id", user.id()));
+                    }
+                    if (PATIENT_ROLE.equals(user.role())) {
+                        return cursorStreamer.stream(Appointment.class,
+                                "SELECT * FROM appointments WHERE patient_id = :id ORDER BY id",
+                                Map.of("id", user.id()));
+                    }
+                    return Flux.empty();
+                });
+    }
+
+    /**
+     * Cambios de la agenda en vivo (altas, cancelaciones, reprogramaciones),
+     * filtrados por rol con el mismo criterio que {@link #getMyAppointments()}.
+     */
+    public Flux<AppointmentEvent> streamMyAppointmentEvents() {
+        return currentUser()
+                .flatMapMany(user -> {
+                    if (ADMIN_ROLE.equals(user.role())) {
+                        return eventFeed.events();
+                    }
+                    if (PSYCHOLOGIST_ROLE.equals(user.role())) {
+                        return eventFeed.events()
+                                .filter(e -> user.id().equals(e.appointment().psychologistId()));
+                    }
+                    if (PATIENT_ROLE.equals(user.role())) {
+                        return eventFeed.events()
+                                .filter(e -> user.id().equals(e.appointment().patientId()));
+                    }
+                    return Flux.empty();
+                });
+    }
+
+    /**
+     * Página de citas según el rol (mismo criterio que {@link #getMyAppointments()}),
+     * en orden cronológico con paginación keyset sobre (start_time, id).
+     * El total aproximado solo se informa a Admin (es el de toda la tabla).
+     */
+    public Mono<CursorPage<Appointment>> getMyAppointmentsPage(String cursor, Integer size, boolean includeTotal) {
+        return Mono.defer(() -> {
+            int pageSize = PageCursor.pageSize(size);
+            PageCursor.Position after = PageCursor.decode(cursor, APPOINTMENT_CURSOR);
+            LocalDateTime afterStart = after.isFirst() ? KEYSET_FIRST_START : parseCursorTime(after.key());
+            long afterId = after.idOrZero();
+            int limit = pageSize + 1;
+
+            return currentUser().flatMap(user -> {
+                Flux<Appointment> rows;
+                Mono<Long> total = Mono.empty();
+                if (ADMIN_ROLE.equals(user.role())) {
+                    rows = appointmentRepository.findPageAfter(afterStart, afterId, limit);
+                    if (includeTotal) {
+                        total = tableStatistics.approximateRowCount("appointments");
+                    }
+                } else if (PSYCHOLOGIST_ROLE.equals(user.role())) {
+                    rows = appointmentRepository.findPageByPsychologistIdAfter(user.id(), afterStart, afterId, limit);
+                } else if (PATIENT_ROLE.equals(user.role())) {
+                    rows = appointmentRepository.findPageByPatientIdAfter(user.id(), afterStart, afterId, limit);
+                } else {
+                    rows = Flux.empty();
+                }
+                return PageCursor.toPage(rows, pageSize,
+                        a -> PageCursor.encode(APPOINTMENT_CURSOR, a.startTime().toString(), a.id()), total);
+            });
+        });
+    }
+
+    private static LocalDateTime parseCursorTime(String value) {
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Cursor de paginación inválido.");
+        }
+    }
+
     // hasAnyRole expects role names without the ROLE_ prefix by default
     @PreAuthorize("hasAnyRole('ADMIN','PSYCHOLOGIST')")
     public Flux<Appointment> checkRoomAvailability(Long roomId, LocalDateTime date) {
@@ -87,15 +217,201 @@ public class AppointmentService {
         return appointmentRepository.findRoomConflicts(roomId, startOfDay, endOfDay);
     }
 
+    /**
+     * Agenda una serie de citas recurrentes (ej: semanal x N, o quincenal hasta
+     * una fecha).
+     * - Los conflictos de toda la serie se verifican en una sola consulta.
+     * - Las sesiones libres se insertan en una sola sentencia.
+     * - Se devuelve un reporte por sesión: las que chocan o caen fuera de
+     *   horario no impiden agendar el resto.
+     */
+    public Mono<AppointmentSeriesReport> bookSeries(AppointmentSeriesRequest request) {
+        return Mono.fromCallable(() -> expandSeries(request))
+                .flatMap(slots -> assignSeriesRoom(request, slots)
+                        .flatMap(withRoom -> bookExpandedSeries(withRoom, slots)))
+                .map(report -> new AppointmentSeriesReport(
+                        report.size(),
+                        (int) report.stream().filter(o -> o.status() == Status.BOOKED).count(),
+                        report));
+    }
+
+    private Mono<List<Occurrence>> bookExpandedSeries(AppointmentSeriesRequest request, List<Appointment> slots) {
+        return Mono.defer(() -> {
+            List<Occurrence> report = new ArrayList<>(slots.size());
+            List<Occurrence> candidates = new ArrayList<>();
+            for (int i = 0; i < slots.size(); i++) {
+                Appointment slot = slots.get(i);
+                String violation = BusinessHours.violation(slot.startTime(), slot.endTime());
+                Occurrence occurrence = violation != null
+                        ? occurrence(i, slot, Status.INVALID, null, violation)
+                        : occurrence(i, slot, null, null, null);
+                report.add(occurrence);
+                if (violation == null) {
+                    candidates.add(occurrence);
+                }
+            }
+            return checkSeriesConflicts(request, candidates, report)
+                    .flatMap(free -> insertSeries(request, free, report))
+                    .thenReturn(report);
+        });
+    }
+
+    /**
+     * Si la serie no indica sala, elige la que tenga menos choques en todas
+     * las sesiones, para no repartir la terapia entre salas distintas.
+     */
+    private Mono<AppointmentSeriesRequest> assignSeriesRoom(AppointmentSeriesRequest request,
+                                                            List<Appointment> slots) {
+        if (request.roomId() != null) {
+            return Mono.just(request);
+        }
+        LocalDateTime[] starts = slots.stream().map(Appointment::startTime).toArray(LocalDateTime[]::new);
+        LocalDateTime[] ends = slots.stream().map(Appointment::endTime).toArray(LocalDateTime[]::new);
+        return roomRepository.findBestFitRoomForSeries(starts, ends, MIN_ROOM_CAPACITY)
+                .switchIfEmpty(Mono.error(new ConflictException("No hay salas activas disponibles.")))
+                .map(room -> new AppointmentSeriesRequest(request.patientId(), request.psychologistId(), room.id(),
+                        request.startTime(), request.durationMinutes(), request.intervalWeeks(),
+                        request.occurrences(), request.until()));
+    }
+
+    private List<Appointment> expandSeries(AppointmentSeriesRequest request) {
+        if (request.occurrences() == null && request.until() == null) {
+            throw new IllegalArgumentException("Debe indicar 'occurrences' o 'until'.");
+        }
+        int duration = request.durationMinutes() != null ? request.durationMinutes() : 60;
+        int interval = request.intervalWeeks() != null ? request.intervalWeeks() : 1;
+        int limit = request.occurrences() != null ? request.occurrences() : MAX_SERIES_OCCURRENCES;
+
+        List<Appointment> slots = new ArrayList<>();
+        LocalDateTime start = request.startTime();
+        while (slots.size() < limit
+                && (request.until() == null || !start.toLocalDate().isAfter(request.until()))) {
+            slots.add(new Appointment(null, start, start.plusMinutes(duration),
+                    request.patientId(), request.psychologistId(), request.roomId()));
+            start = start.plusWeeks(interval);
+        }
+        if (slots.isEmpty()) {
+            throw new IllegalArgumentException("La fecha límite es anterior a la primera sesión.");
+        }
+        if (request.occurrences() == null && !start.toLocalDate().isAfter(request.until())) {
+            throw new IllegalArgumentException(
+                    "La serie supera el máximo de " + MAX_SERIES_OCCURRENCES + " sesiones.");
+        }
+        return slots;
+    }
+
+    /**
+     * Marca como CONFLICT las sesiones que chocan y devuelve las que siguen libres.
+     */
+    private Mono<List<Occurrence>> checkSeriesConflicts(AppointmentSeriesRequest request,
+                                                        List<Occurrence> candidates,
+                                                        List<Occurrence> report) {
+        if (candidates.isEmpty()) {
+            return Mono.just(candidates);
+        }
+        return appointmentRepository.findSeriesConflicts(
+                        request.psychologistId(), request.patientId(), request.roomId(),
+                        startTimes(candidates), endTimes(candidates))
+                .collectList()
+                .map(conflicts -> {
+                    List<Occurrence> free = new ArrayList<>();
+                    for (int i = 0; i < candidates.size(); i++) {
+                        Occurrence candidate = candidates.get(i);
+                        String message = conflictMessage(conflicts.get(i));
+                        if (message != null) {
+                            report.set(candidate.index(), withStatus(candidate, Status.CONFLICT, null, message));
+                        } else {
+                            free.add(candidate);
+                        }
+                    }
+                    return free;
+                });
+    }
+
+    private Mono<Void> insertSeries(AppointmentSeriesRequest request, List<Occurrence> free,
+                                    List<Occurrence> report) {
+        if (free.isEmpty()) {
+            return Mono.empty();
+        }
+        Map<LocalDateTime, Occurrence> byStart = new HashMap<>();
+        free.forEach(o -> byStart.put(o.startTime(), o));
+        return appointmentRepository.insertSeries(
+                        request.psychologistId(), request.patientId(), request.roomId(),
+                        startTimes(free), endTimes(free))
+                .doOnNext(intervalIndex::add)
+                .doOnNext(saved -> {
+                    Occurrence occurrence = byStart.get(saved.startTime());
+                    report.set(occurrence.index(), withStatus(occurrence, Status.BOOKED, saved.id(), null));
+                })
+                .onErrorMap(DataIntegrityViolationException.class, this::mapConstraintViolation)
+                .then();
+    }
+
+    private static Occurrence occurrence(int index, Appointment slot, Status status, Long id, String message) {
+        return new Occurrence(index, slot.startTime(), slot.endTime(), status, id, message);
+    }
+
+    private static Occurrence withStatus(Occurrence o, Status status, Long id, String message) {
+        return new Occurrence(o.index(), o.startTime(), o.endTime(), status, id, message);
+    }
+
+    private static LocalDateTime[] startTimes(List<Occurrence> occurrences) {
+        return occurrences.stream().map(Occurrence::startTime).toArray(LocalDateTime[]::new);
+    }
+
+    private static LocalDateTime[] endTimes(List<Occurrence> occurrences) {
+        return occurrences.stream().map(Occurrence::endTime).toArray(LocalDateTime[]::new);
+    }
+
     private Mono<Appointment> processAppointment(Appointment appointment) {
+        Mono<Appointment> booking = Mono.defer(() -> assignRoom(appointment))
+                .flatMap(withRoom -> validateAvailability(withRoom)
+                        .then(Mono.defer(() -> appointmentRepository.save(withRoom))));
+        if (appointment.roomId() == null) {
+            // Dos reservas simultáneas pueden recibir la misma sala: se reintenta
+            // una vez la asignación antes de reportar el conflicto
+            booking = booking.retryWhen(Retry.max(1)
+                    .filter(e -> e instanceof DataIntegrityViolationException
+                            && String.valueOf(e.getMessage()).toLowerCase().contains("no_room_overlap"))
+                    .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+        }
         return Mono.defer(() -> validateBusinessHours(appointment))
-                .then(Mono.defer(() -> validatePsychologistAvailability(appointment)))
-                .then(Mono.defer(() -> validatePatientAvailability(appointment)))
-                .then(Mono.defer(() -> validateRoomAvailability(appointment)))
-                .then(Mono.defer(() -> appointmentRepository.save(java.util.Objects.requireNonNull(appointment))))
+                .then(booking)
+                .doOnNext(intervalIndex::add)
                 .onErrorMap(DataIntegrityViolationException.class, this::mapConstraintViolation);
     }
 
+    /**
+     * Si la cita no indica sala, elige una activa y libre (best-fit por capacidad).
+     */
+    private Mono<Appointment> assignRoom(Appointment appointment) {
+        if (appointment.roomId() != null) {
+            return Mono.just(appointment);
+        }
+        return roomRepository.findBestFitRoom(appointment.startTime(), appointment.endTime(), MIN_ROOM_CAPACITY)
+                .switchIfEmpty(Mono.error(new ConflictException("No hay salas disponibles en ese horario.")))
+                .map(room -> new Appointment(appointment.id(), appointment.startTime(), appointment.endTime(),
+                        appointment.patientId(), appointment.psychologistId(), room.id()));
+    }
+
+    /**
+     * Verifica disponibilidad usando primero el índice en memoria.
+     * Si el índice cubre el horario y no detecta conflictos, no se consulta la BD
+     * (los EXCLUDE constraints siguen protegiendo la inserción). Si no lo cubre o
+     * detecta un posible conflicto, se confirma contra la BD en una sola consulta.
+     */
+    private Mono<Void> validateAvailability(Appointment appointment) {
+        if (intervalIndex.covers(appointment.startTime())
+                && !intervalIndex.findConflicts(appointment).any()) {
+            return Mono.empty();
+        }
+        return appointmentRepository.findResourceConflicts(
+                        appointment.psychologistId(), appointment.patientId(), appointment.roomId(),
+                        appointment.startTime(), appointment.endTime())
+                .defaultIfEmpty(ResourceConflicts.NONE)
+                .flatMap(this::failIfConflict);
+    }
+
     /**
      * Convierte violaciones de constraint de base de datos en errores de negocio
      * legibles.
@@ -124,52 +440,27 @@ public class AppointmentService {
 
     // Reactive validation instead of throwing exceptions synchronously
     private Mono<Void> validateBusinessHours(Appointment appointment) {
-        var start = appointment.startTime();
-        var end = appointment.endTime();
-
-        if (start == null || end == null) {
-            return Mono.error(new IllegalArgumentException("Horario de inicio/fin es requerido."));
-        }
-        if (!end.isAfter(start)) {
-            return Mono.error(new IllegalArgumentException("La hora de fin debe ser después de la hora de inicio."));
-        }
-        if (start.getDayOfWeek() == SUNDAY) {
-            return Mono.error(new IllegalArgumentException("Cerrado los domingos."));
-        }
-        var startTime = start.toLocalTime();
-        var endTime = end.toLocalTime();
-        if (startTime.isBefore(OPENING_TIME) || endTime.isAfter(CLOSING_TIME)) {
-            return Mono.error(new IllegalArgumentException("Fuera de horario (08:00 - 22:00)."));
-        }
-        return Mono.empty();
-    }
-
-    private Mono<Void> failIfConflict(Flux<?> searchOperation, String errorMessage) {
-        return searchOperation.hasElements()
-                .flatMap(hasConflict -> Boolean.TRUE.equals(hasConflict)
-                        ? Mono.error(new ConflictException(errorMessage))
-                        : Mono.empty());
-    }
-
-    private Mono<Void> validatePsychologistAvailability(Appointment appointment) {
-        return failIfConflict(
-                appointmentRepository.findPsychologistConflicts(
-                        appointment.psychologistId(), appointment.startTime(), appointment.endTime()),
-                "Psicólogo ocupado.");
+        String violation = BusinessHours.violation(appointment.startTime(), appointment.endTime());
+        return violation != null ? Mono.error(new IllegalArgumentException(violation)) : Mono.empty();
     }
 
-    private Mono<Void> validatePatientAvailability(Appointment appointment) {
-        return failIfConflict(
-                appointmentRepository.findPatientConflicts(
-                        appointment.patientId(), appointment.startTime(), appointment.endTime()),
-                "Paciente ya tiene cita.");
+    private Mono<Void> failIfConflict(ResourceConflicts conflicts) {
+        String message = conflictMessage(conflicts);
+        return message != null ? Mono.error(new ConflictException(message)) : Mono.empty();
     }
 
-    private Mono<Void> validateRoomAvailability(Appointment appointment) {
-        return failIfConflict(
-                appointmentRepository.findRoomConflicts(
-                        appointment.roomId(), appointment.startTime(), appointment.endTime()),
-                "Sala ocupada.");
+    // Mantiene la prioridad y los mensajes de las validaciones individuales
+    private static String conflictMessage(ResourceConflicts conflicts) {
+        if (conflicts.psychologistBusy()) {
+            return "Psicólogo ocupado.";
+        }
+        if (conflicts.patientBusy()) {
+            return "Paciente ya tiene cita.";
+        }
+        if (conflicts.roomBusy()) {
+            return "Sala ocupada.";
+        }
+        return null;
     }
 
     /**
@@ -186,12 +477,12 @@ public class AppointmentService {
                         .flatMap(appointment -> {
                             // Admin puede cancelar cualquier cita
                             if (ADMIN_ROLE.equals(user.role())) {
-                                return appointmentRepository.deleteById(safeId);
+                                return deleteAppointment(appointment);
                             }
                             // Psicólogo solo puede cancelar sus propias citas
                             if (PSYCHOLOGIST_ROLE.equals(user.role())) {
                                 if (user.id().equals(appointment.psychologistId())) {
-                                    return appointmentRepository.deleteById(safeId);
+                                    return deleteAppointment(appointment);
                                 }
                                 return Mono
                                         .error(new IllegalAccessException("Solo puedes cancelar tus propias citas."));
@@ -200,6 +491,11 @@ public class AppointmentService {
                         }));
     }
 
+    private Mono<Void> deleteAppointment(Appointment appointment) {
+        return appointmentRepository.deleteById(java.util.Objects.requireNonNull(appointment.id()))
+                .then(Mono.fromRunnable(() -> intervalIndex.remove(appointment)));
+    }
+
     /**
      * Obtiene citas futuras filtradas según parámetros.
      * Si no se especifican filtros, retorna citas del usuario según su rol.
@@ -289,25 +585,158 @@ public class AppointmentService {
      * Obtiene horarios disponibles (100% libres) para un psicólogo en una fecha específica.
      * Retorna lista de horas disponibles en formato "HH:mm" (ej: ["09:00", "10:00", "14:00"]).
      */
-    public Flux<String> getAvailableSlots(Long psychologistId, java.time.LocalDate date) {
-        LocalDateTime startOfDay = date.atStartOfDay();
-        LocalDateTime endOfDay = date.atTime(LocalTime.MAX);
-        
-        return appointmentRepository.findByPsychologistIdAndStartTimeBetween(
-                psychologistId, startOfDay, endOfDay)
-                .map(appointment -> appointment.startTime().toLocalTime())
+    public Flux<String> getAvailableSlots(Long psychologistId, LocalDate date) {
+        return appointmentRepository.findByPsychologistIdsOverlapping(
+                        List.of(psychologistId), date.atStartOfDay(), date.plusDays(1).atStartOfDay())
                 .collectList()
-                .flatMapMany(occupiedTimes -> {
-                    // Generar todos los slots posibles (cada hora de 8am a 9pm)
-                    java.util.List<String> allSlots = new java.util.ArrayList<>();
-                    for (int hour = 8; hour < 22; hour++) {
-                        LocalTime slot = LocalTime.of(hour, 0);
-                        // Solo agregar si NO está ocupado
-                        if (!occupiedTimes.contains(slot)) {
-                            allSlots.add(String.format("%02d:00", hour));
+                .flatMapIterable(appointments -> ScheduleGrid.labels(ScheduleGrid.freeMask(date, appointments)));
+    }
+
+    /**
+     * Matriz de disponibilidad de varios psicólogos para un rango de días.
+     * Se construye con una sola consulta por rango: una vista semanal cuesta
+     * una petición y un SELECT, en lugar de una llamada por psicólogo y día.
+     */
+    public Mono<AvailabilityMatrix> getAvailabilityMatrix(List<Long> psychologistIds, LocalDate from, LocalDate to) {
+        if (psychologistIds == null || psychologistIds.isEmpty()) {
+            return Mono.error(new IllegalArgumentException("Debe indicar al menos un psicólogo."));
+        }
+        if (psychologistIds.size() > MAX_MATRIX_PSYCHOLOGISTS) {
+            return Mono.error(new IllegalArgumentException(
+                    "Máximo " + MAX_MATRIX_PSYCHOLOGISTS + " psicólogos por consulta."));
+        }
+        if (to.isBefore(from)) {
+            return Mono.error(new IllegalArgumentException("La fecha final debe ser posterior a la inicial."));
+        }
+        int dayCount = (int) ChronoUnit.DAYS.between(from, to) + 1;
+        if (dayCount > MAX_MATRIX_DAYS) {
+            return Mono.error(new IllegalArgumentException("El rango máximo es de " + MAX_MATRIX_DAYS + " días."));
+        }
+
+        List<Long> ids = psychologistIds.stream().distinct().toList();
+        return appointmentRepository.findByPsychologistIdsOverlapping(
+                        ids, from.atStartOfDay(), to.plusDays(1).atStartOfDay())
+                .collectMultimap(Appointment::psychologistId)
+                .map(byPsychologist -> {
+                    List<AvailabilityMatrix.Row> rows = new ArrayList<>(ids.size());
+                    for (Long id : ids) {
+                        Collection<Appointment> appointments = byPsychologist.getOrDefault(id, List.of());
+                        List<Long> days = new ArrayList<>(dayCount);
+                        for (int d = 0; d < dayCount; d++) {
+                            days.add(ScheduleGrid.freeMask(from.plusDays(d), appointments));
                         }
+                        rows.add(new AvailabilityMatrix.Row(id, days));
                     }
-                    return Flux.fromIterable(allSlots);
+                    return new AvailabilityMatrix(from, to, ScheduleGrid.labels(ScheduleGrid.ALL_SLOTS), rows);
                 });
     }
+
+    /**
+     * Primeros horarios en que el psicólogo, el paciente y alguna sala activa
+     * están libres a la vez, dentro de un horizonte de semanas.
+     *
+     * Se leen en una sola consulta todas las citas que restringen la búsqueda
+     * y, por cada día, se intersectan las máscaras de la grilla:
+     * psicólogo AND paciente AND (sala1 OR sala2 ...). Los candidatos salen
+     * ordenados del más próximo al más lejano, cada uno con una sala sugerida.
+     *
+     * Las salas y la sugerida siguen las reglas de {@link #assignRoom}:
+     * activas con capacidad suficiente, la de menor capacidad y, a igual
+     * capacidad, la que ya tiene una cita pegada al horario.
+     */
+    public Flux<SlotCandidate> findJointSlots(Long psychologistId, Long patientId, LocalDate from,
+                                              Integer weeks, Integer limit) {
+        if (psychologistId == null || patientId == null) {
+            return Flux.error(new IllegalArgumentException("Psicólogo y paciente son requeridos."));
+        }
+        int horizonWeeks = weeks != null ? weeks : 2;
+        int maxCandidates = limit != null ? limit : 5;
+        if (horizonWeeks < 1 || horizonWeeks > MAX_SLOT_SEARCH_WEEKS) {
+            return Flux.error(new IllegalArgumentException(
+                    "El horizonte debe estar entre 1 y " + MAX_SLOT_SEARCH_WEEKS + " semanas."));
+        }
+        if (maxCandidates < 1 || maxCandidates > MAX_SLOT_CANDIDATES) {
+            return Flux.error(new IllegalArgumentException(
+                    "El número de resultados debe estar entre 1 y " + MAX_SLOT_CANDIDATES + "."));
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate firstDay = from != null && from.isAfter(now.toLocalDate()) ? from : now.toLocalDate();
+        LocalDate endDay = firstDay.plusWeeks(horizonWeeks);
+
+        return Mono.zip(
+                        roomRepository.findBookable(MIN_ROOM_CAPACITY).collectList(),
+                        appointmentRepository.findJointScheduleOverlapping(
+                                psychologistId, patientId, firstDay.atStartOfDay(), endDay.atStartOfDay())
+                                .collectList())
+                .flatMapIterable(tuple -> rankJointSlots(psychologistId, patientId, tuple.getT1(), tuple.getT2(),
+                        firstDay, endDay, now, maxCandidates));
+    }
+
+    private List<SlotCandidate> rankJointSlots(Long psychologistId, Long patientId, List<BookableRoom> rooms,
+                                               List<Appointment> appointments, LocalDate firstDay,
+                                               LocalDate endDay, LocalDateTime notBefore, int limit) {
+        List<SlotCandidate> candidates = new ArrayList<>(limit);
+        if (rooms.isEmpty()) {
+            return candidates;
+        }
+        List<Appointment> psychologistBusy = appointments.stream()
+                .filter(a -> psychologistId.equals(a.psychologistId())).toList();
+        List<Appointment> patientBusy = appointments.stream()
+                .filter(a -> patientId.equals(a.patientId())).toList();
+        Map<Long, List<Appointment>> roomBusy = new HashMap<>();
+        appointments.stream()
+                .filter(a -> a.roomId() != null)
+                .forEach(a -> roomBusy.computeIfAbsent(a.roomId(), id -> new ArrayList<>()).add(a));
+
+        for (LocalDate day = firstDay; day.isBefore(endDay) && candidates.size() < limit; day = day.plusDays(1)) {
+            long people = ScheduleGrid.freeMask(day, psychologistBusy) & ScheduleGrid.freeMask(day, patientBusy);
+            if (people == 0) {
+                continue;
+            }
+            long[] roomFree = new long[rooms.size()];
+            long anyRoom = 0L;
+            for (int r = 0; r < rooms.size(); r++) {
+                roomFree[r] = ScheduleGrid.freeMask(day, roomBusy.getOrDefault(rooms.get(r).id(), List.of()));
+                anyRoom |= roomFree[r];
+            }
+            long joint = people & anyRoom;
+            for (int slot = 0; slot < ScheduleGrid.SLOT_COUNT && candidates.size() < limit; slot++) {
+                LocalDateTime start = ScheduleGrid.slotStart(day, slot);
+                if ((joint & (1L << slot)) == 0 || start.isBefore(notBefore)) {
+                    continue;
+                }
+                Long room = bestFitRoom(rooms, roomFree, roomBusy, slot, start, start.plusHours(1));
+                candidates.add(new SlotCandidate(start, start.plusHours(1), room));
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Misma elección que {@code RoomRepository.findBestFitRoom}: las salas
+     * vienen ordenadas por capacidad e ID; entre las libres de menor
+     * capacidad gana la primera con una cita pegada al intervalo.
+     */
+    private static Long bestFitRoom(List<BookableRoom> rooms, long[] roomFree, Map<Long, List<Appointment>> roomBusy,
+                                    int slot, LocalDateTime start, LocalDateTime end) {
+        int best = -1;
+        for (int r = 0; r < rooms.size(); r++) {
+            if ((roomFree[r] & (1L << slot)) == 0) {
+                continue;
+            }
+            if (best < 0) {
+                best = r;
+            } else if (rooms.get(r).capacity() != rooms.get(best).capacity()) {
+                break;
+            }
+            boolean adjacent = roomBusy.getOrDefault(rooms.get(r).id(), List.of()).stream()
+                    .anyMatch(a -> a.endTime().equals(start) || a.startTime().equals(end));
+            if (adjacent) {
+                best = r;
+                break;
+            }
+        }
+        return rooms.get(best).id();
+    }
 }
@@ -0,0 +1,41 @@
+package com.clinica.mentalhealth.service;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import static java.time.DayOfWeek.SUNDAY;
+
+/**
+ * Reglas de horario comercial de la clínica (lunes a sábado, 08:00 - 22:00).
+ * Compartidas por la creación de citas individuales y de series.
+ */
+public final class BusinessHours {
+
+    public static final LocalTime OPENING_TIME = LocalTime.of(8, 0);
+    public static final LocalTime CLOSING_TIME = LocalTime.of(22, 0);
+
+    private BusinessHours() {
+        // Utility class - prevent instantiation
+    }
+
+    /**
+     * Valida un intervalo contra el horario comercial.
+     *
+     * @return mensaje de error, o {@code null} si el intervalo es válido
+     */
+    public static String violation(LocalDateTime start, LocalDateTime end) {
+        if (start == null || end == null) {
+            return "Horario de inicio/fin es requerido.";
+        }
+        if (!end.isAfter(start)) {
+            return "La hora de fin debe ser después de la hora de inicio.";
+        }
+        if (start.getDayOfWeek() == SUNDAY) {
+            return "Cerrado los domingos.";
+        }
+        if (start.toLocalTime().isBefore(OPENING_TIME) || end.toLocalTime().isAfter(CLOSING_TIME)) {
+            return "Fuera de horario (08:00 - 22:00).";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,54 @@
+package com.clinica.mentalhealth.service;
+
+import com.clinica.mentalhealth.config.PostgresNotifications;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+/**
+ * Altas, renombres y bajas de pacientes y psicólogos de todas las instancias,
+ * publicados por el trigger {@code notify_name_change} (ver migración V7).
+ */
+@Slf4j
+@Component
+public class NameChangeFeed {
+
+    static final String CHANNEL = "name_changes";
+
+    /**
+     * @param name nombre actual ({@code null} en las bajas)
+     */
+    public record NameChange(TypeaheadIndex.Kind kind, Type type, Long id, String name) {
+
+        public enum Type {
+            UPSERTED,
+            DELETED
+        }
+    }
+
+    private final Flux<NameChange> changes;
+
+    public NameChangeFeed(PostgresNotifications notifications, ObjectMapper objectMapper) {
+        this.changes = notifications.listen(CHANNEL)
+                .mapNotNull(payload -> parse(objectMapper, payload))
+                .share();
+    }
+
+    /**
+     * Cambios en caliente (sin historial): solo llegan los posteriores a la suscripción.
+     */
+    public Flux<NameChange> changes() {
+        return changes;
+    }
+
+    private static NameChange parse(ObjectMapper objectMapper, String payload) {
+        try {
+            return objectMapper.readValue(payload, NameChange.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Notificación de nombre ignorada (payload inválido): {}", payload);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.clinica.mentalhealth.service;
+
+import com.clinica.mentalhealth.web.dto.CursorPage;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Tokens de continuación opacos para paginación keyset (sin OFFSET).
+ *
+ * El token codifica en Base64 URL-safe el orden usado y la última clave
+ * devuelta ("kind|key|id"). La siguiente página se lee con
+ * {@code WHERE (key, id) > (:key, :id) ORDER BY key, id LIMIT :size}, que
+ * recorre el índice desde ese punto: la página 1000 cuesta lo mismo que la 1.
+ */
+public final class PageCursor {
+
+    public static final int DEFAULT_SIZE = 20;
+    public static final int MAX_SIZE = 100;
+
+    public static final String SORT_ID = "id";
+    public static final String SORT_NAME = "name";
+
+    private static final String INVALID = "Cursor de paginación inválido.";
+
+    private PageCursor() {
+        // Utility class - prevent instantiation
+    }
+
+    /**
+     * Última clave de la página anterior. Para la primera página, key y id son null.
+     */
+    public record Position(String key, Long id) {
+
+        static final Position FIRST = new Position(null, null);
+
+        public boolean isFirst() {
+            return id == null;
+        }
+
+        public long idOrZero() {
+            return id != null ? id : 0L;
+        }
+    }
+
+    public static int pageSize(Integer requested) {
+        if (requested == null) {
+            return DEFAULT_SIZE;
+        }
+        if (requested < 1 || requested > MAX_SIZE) {
+            throw new IllegalArgumentException("El tamaño de página debe estar entre 1 y " + MAX_SIZE + ".");
+        }
+        return requested;
+    }
+
+    /**
+     * Orden permitido para listados de personas: "id" (por defecto) o "name".
+     */
+    public static String peopleSort(String sort) {
+        if (sort == null || sort.isBlank() || SORT_ID.equals(sort)) {
+            return SORT_ID;
+        }
+        if (SORT_NAME.equals(sort)) {
+            return SORT_NAME;
+        }
+        throw new IllegalArgumentException("Orden no soportado: " + sort + " (use 'id' o 'name').");
+    }
+
+    public static String encode(String kind, String key, Long id) {
+        String raw = kind + "|" + (key != null ? key : "") + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un token verificando que fue emitido para el mismo orden.
+     */
+    public static Position decode(String token, String kind) {
+        if (token == null || token.isBlank()) {
+            return Position.FIRST;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int first = raw.indexOf('|');
+            int last = raw.lastIndexOf('|');
+            if (first < 0 || first == last || !raw.substring(0, first).equals(kind)) {
+                throw new IllegalArgumentException(INVALID);
+            }
+            return new Position(raw.substring(first + 1, last), Long.parseLong(raw.substring(last + 1)));
+        } catch (IllegalArgumentException e) {
+            // Incluye NumberFormatException y errores de Base64
+            throw new IllegalArgumentException(INVALID);
+        }
+    }
+
+    /**
+     * Arma la página a partir de {@code size + 1} filas leídas: la fila extra
+     * solo indica que hay una página siguiente.
+     *
+     * @param approximateTotal total estimado, o {@code Mono.empty()} si no se pidió
+     */
+    public static <T> Mono<CursorPage<T>> toPage(Flux<T> rows, int size, Function<T, String> cursorOf,
+                                                 Mono<Long> approximateTotal) {
+        return rows.collectList()
+                .zipWith(approximateTotal.map(Optional::of).defaultIfEmpty(Optional.empty()))
+                .map(tuple -> {
+                    List<T> fetched = tuple.getT1();
+                    boolean hasMore = fetched.size() > size;
+                    List<T> items = hasMore ? fetched.subList(0, size) : fetched;
+                    String next = hasMore ? cursorOf.apply(items.get(items.size() - 1)) : null;
+                    return new CursorPage<>(items, next, tuple.getT2().orElse(null));
+                });
+    }
+}
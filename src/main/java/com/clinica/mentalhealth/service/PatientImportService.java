@@ -0,0 +1,399 @@
+package com.clinica.mentalhealth.service;
+
+import com.clinica.mentalhealth.config.ReactiveCache;
+import com.clinica.mentalhealth.domain.Role;
+import com.clinica.mentalhealth.security.PasswordHashingService;
+import com.clinica.mentalhealth.web.dto.PatientImportResult;
+import com.clinica.mentalhealth.web.dto.PatientImportResult.Status;
+import com.clinica.mentalhealth.web.exception.ServiceBusyException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Importación masiva de pacientes desde CSV o NDJSON.
+ *
+ * El archivo se procesa en streaming por lotes: por cada lote se consultan los
+ * DNI y emails existentes con una sola consulta {@code = ANY(...)} cada uno y
+ * se insertan usuarios y pacientes con un INSERT multi-fila por tabla
+ * ({@code unnest} de arrays), en una transacción por lote.
+ *
+ * Todos los pacientes importados reciben la misma contraseña inicial
+ * ({@link PatientService#INITIAL_PASSWORD}), así que su hash BCrypt se
+ * calcula una sola vez por importación en el pool de
+ * {@link PasswordHashingService} y se asigna a cada fila: un hash por fila
+ * limitaría la importación a decenas de filas por segundo. Como la
+ * contraseña es una constante conocida, un salt distinto por fila no
+ * agregaría protección.
+ *
+ * Cada fila produce un {@link PatientImportResult}, en el orden del archivo.
+ * Una fila inválida o duplicada no detiene la importación; un error al
+ * insertar revierte solo su lote.
+ */
+@Slf4j
+@Service
+public class PatientImportService {
+
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    static final List<String> COLUMNS = List.of("name", "email", "phone", "dni");
+
+    private static final Pattern EMAIL = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+    private static final Pattern PHONE = Pattern.compile("^\\+?\\d{6,20}$");
+    private static final Pattern DNI = Pattern.compile("^\\d{8}$");
+
+    private static final String EXISTING_DNIS_SQL = "SELECT dni FROM \"patients\" WHERE dni = ANY(:dnis)";
+    private static final String EXISTING_EMAILS_SQL = "SELECT username FROM \"users\" WHERE username = ANY(:emails)";
+
+    private static final String INSERT_USERS_SQL = """
+            INSERT INTO "users" (username, password, role)
+            SELECT username, :password, :role
+            FROM unnest(CAST(:usernames AS text[])) AS u(username)
+            RETURNING id, username
+            """;
+
+    private static final String INSERT_PATIENTS_SQL = """
+            INSERT INTO "patients" (id, name, email, phone, dni)
+            SELECT * FROM unnest(CAST(:ids AS bigint[]), CAST(:names AS text[]), CAST(:emails AS text[]),
+                                 CAST(:phones AS text[]), CAST(:dnis AS text[]))
+            """;
+
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+    private final PasswordHashingService passwordHashingService;
+    private final ReactiveCache reactiveCache;
+    private final TypeaheadIndex typeaheadIndex;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+
+    public PatientImportService(DatabaseClient databaseClient, TransactionalOperator transactionalOperator,
+            PasswordHashingService passwordHashingService, ReactiveCache reactiveCache, TypeaheadIndex typeaheadIndex,
+            ObjectMapper objectMapper,
+            @Value("${import.patients.batch-size:500}") int batchSize) {
+        this.databaseClient = databaseClient;
+        this.transactionalOperator = transactionalOperator;
+        this.passwordHashingService = passwordHashingService;
+        this.reactiveCache = reactiveCache;
+        this.typeaheadIndex = typeaheadIndex;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Fila del archivo ya parseada. {@code error != null} si es inválida.
+     */
+    record Row(long line, String name, String email, String phone, String dni, String error) {
+
+        static Row invalid(long line, String dni, String error) {
+            return new Row(line, null, null, null, dni, error);
+        }
+    }
+
+    /**
+     * @param lines líneas del archivo (la primera de un CSV es la cabecera)
+     */
+    public Flux<PatientImportResult> importPatients(Flux<String> lines, Format format) {
+        return Flux.defer(() -> {
+            // Estado por importación: DNI/emails ya vistos en lotes anteriores del archivo
+            Set<String> seenDnis = new HashSet<>();
+            Set<String> seenEmails = new HashSet<>();
+            Mono<String> initialPassword = initialPasswordHash();
+            return parse(lines, format)
+                    .buffer(batchSize)
+                    .concatMap(batch -> importBatch(batch, initialPassword, seenDnis, seenEmails));
+        });
+    }
+
+    // --- PARSEO ---
+
+    Flux<Row> parse(Flux<String> lines, Format format) {
+        return Flux.defer(() -> {
+            Flux<Row> rows;
+            if (format == Format.NDJSON) {
+                rows = lines.index()
+                        .filter(line -> !line.getT2().isBlank())
+                        .map(line -> parseJson(line.getT1() + 1, line.getT2()));
+            } else {
+                Map<String, Integer> header = new HashMap<>();
+                rows = lines.index()
+                        .filter(line -> !line.getT2().isBlank())
+                        .handle((line, sink) -> {
+                            long number = line.getT1() + 1;
+                            if (header.isEmpty()) {
+                                readHeader(line.getT2(), header);
+                                return;
+                            }
+                            sink.next(parseCsv(number, line.getT2(), header));
+                        });
+            }
+            return rows.map(PatientImportService::validate);
+        });
+    }
+
+    private Row parseJson(long line, String json) {
+        try {
+            Map<?, ?> fields = objectMapper.readValue(json, Map.class);
+            if (fields == null) {
+                return Row.invalid(line, null, "Se esperaba un objeto JSON");
+            }
+            return new Row(line, text(fields.get("name")), text(fields.get("email")),
+                    text(fields.get("phone")), text(fields.get("dni")), null);
+        } catch (JsonProcessingException e) {
+            return Row.invalid(line, null, "JSON inválido: " + e.getOriginalMessage());
+        }
+    }
+
+    private static void readHeader(String line, Map<String, Integer> header) {
+        List<String> names = splitCsv(line);
+        for (int i = 0; i < names.size(); i++) {
+            header.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        List<String> missing = COLUMNS.stream().filter(column -> !header.containsKey(column)).toList();
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("La cabecera CSV debe incluir las columnas " + COLUMNS
+                    + "; faltan " + missing);
+        }
+    }
+
+    private static Row parseCsv(long line, String text, Map<String, Integer> header) {
+        List<String> values = splitCsv(text);
+        if (values.size() < header.size()) {
+            return Row.invalid(line, null, "Se esperaban " + header.size() + " columnas y hay " + values.size());
+        }
+        return new Row(line, values.get(header.get("name")), values.get(header.get("email")),
+                values.get(header.get("phone")), values.get(header.get("dni")), null);
+    }
+
+    /**
+     * Separa una línea CSV respetando comillas dobles ({@code ""} escapa una
+     * comilla). Los campos no pueden contener saltos de línea.
+     */
+    static List<String> splitCsv(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    private static String text(Object value) {
+        return value != null ? value.toString() : null;
+    }
+
+    /**
+     * Mismas reglas que {@code POST /api/patients}.
+     */
+    static Row validate(Row row) {
+        if (row.error() != null) {
+            return row;
+        }
+        String name = trimToNull(row.name());
+        String email = trimToNull(row.email());
+        String phone = trimToNull(row.phone());
+        String dni = trimToNull(row.dni());
+        String error = null;
+        if (name == null || name.length() < 2 || name.length() > 255) {
+            error = "El nombre debe tener entre 2 y 255 caracteres";
+        } else if (email == null || email.length() > 255 || !EMAIL.matcher(email).matches()) {
+            error = "El correo electrónico debe ser válido";
+        } else if (phone == null || !PHONE.matcher(phone).matches()) {
+            error = "El teléfono debe contener entre 6 y 20 dígitos";
+        } else if (dni == null || !DNI.matcher(dni).matches()) {
+            error = "El DNI debe tener exactamente 8 dígitos";
+        }
+        return new Row(row.line(), name, email, phone, dni, error);
+    }
+
+    private static String trimToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    // --- IMPORTACIÓN POR LOTES ---
+
+    /**
+     * Hash de la contraseña inicial, calculado al insertar el primer lote y
+     * reutilizado en los siguientes. Un error no queda cacheado: el lote
+     * siguiente lo vuelve a intentar.
+     */
+    private Mono<String> initialPasswordHash() {
+        // Si el pool está saturado (ej: ráfaga de logins) la importación espera y reintenta
+        return Mono.defer(() -> passwordHashingService.encode(PatientService.INITIAL_PASSWORD))
+                .retryWhen(Retry.backoff(10, Duration.ofMillis(100))
+                        .filter(ServiceBusyException.class::isInstance))
+                .cache(hash -> Duration.ofMillis(Long.MAX_VALUE), error -> Duration.ZERO, () -> Duration.ZERO);
+    }
+
+    private Flux<PatientImportResult> importBatch(List<Row> batch, Mono<String> initialPassword,
+            Set<String> seenDnis, Set<String> seenEmails) {
+        List<Row> valid = batch.stream().filter(row -> row.error() == null).toList();
+        return Mono.zip(
+                        existing(EXISTING_DNIS_SQL, "dnis", "dni", valid.stream().map(Row::dni).toList()),
+                        existing(EXISTING_EMAILS_SQL, "emails", "username", valid.stream().map(Row::email).toList()))
+                .flatMapMany(found -> {
+                    Map<Long, PatientImportResult> results = new HashMap<>();
+                    List<Row> candidates = new ArrayList<>();
+                    for (Row row : batch) {
+                        PatientImportResult rejection = rejection(row, found.getT1(), found.getT2(), seenDnis,
+                                seenEmails);
+                        if (rejection != null) {
+                            results.put(row.line(), rejection);
+                        } else {
+                            candidates.add(row);
+                        }
+                    }
+                    return insert(candidates, initialPassword)
+                            .doOnNext(result -> results.put(result.line(), result))
+                            .thenMany(Flux.fromIterable(batch).map(row -> results.get(row.line())));
+                });
+    }
+
+    private static PatientImportResult rejection(Row row, Set<String> existingDnis, Set<String> existingEmails,
+            Set<String> seenDnis, Set<String> seenEmails) {
+        if (row.error() != null) {
+            return PatientImportResult.rejected(row.line(), Status.INVALID, row.dni(), row.error());
+        }
+        if (existingDnis.contains(row.dni())) {
+            return PatientImportResult.rejected(row.line(), Status.DUPLICATE, row.dni(),
+                    "Ya existe un paciente con DNI " + row.dni());
+        }
+        if (existingEmails.contains(row.email())) {
+            return PatientImportResult.rejected(row.line(), Status.DUPLICATE, row.dni(),
+                    "Ya existe un usuario con email " + row.email());
+        }
+        if (!seenDnis.add(row.dni())) {
+            return PatientImportResult.rejected(row.line(), Status.DUPLICATE, row.dni(),
+                    "DNI repetido en el archivo");
+        }
+        if (!seenEmails.add(row.email())) {
+            return PatientImportResult.rejected(row.line(), Status.DUPLICATE, row.dni(),
+                    "Email repetido en el archivo");
+        }
+        return null;
+    }
+
+    private Mono<Set<String>> existing(String sql, String parameter, String column, List<String> values) {
+        if (values.isEmpty()) {
+            return Mono.just(Set.of());
+        }
+        return databaseClient.sql(sql)
+                .bind(parameter, values.toArray(String[]::new))
+                .map((row, metadata) -> Objects.requireNonNull(row.get(column, String.class)))
+                .all()
+                .collect(HashSet::new, Set::add);
+    }
+
+    /**
+     * Inserta las filas del lote en una transacción y emite un resultado por fila.
+     */
+    private Flux<PatientImportResult> insert(List<Row> rows, Mono<String> initialPassword) {
+        if (rows.isEmpty()) {
+            return Flux.empty();
+        }
+        // El hash se obtiene antes de abrir la transacción: la conexión solo se toma para los dos INSERT
+        Mono<Map<String, Long>> inserted = initialPassword.flatMap(password -> insertBoth(rows, password)
+                .as(transactionalOperator::transactional));
+
+        return inserted
+                .flatMapMany(ids -> publish(rows, ids)
+                        .thenMany(Flux.fromIterable(rows)
+                                .map(row -> PatientImportResult.created(row.line(), ids.get(row.email()), row.dni()))))
+                .onErrorResume(e -> {
+                    log.warn("Lote de importación revertido (líneas {}-{}): {}", rows.get(0).line(),
+                            rows.get(rows.size() - 1).line(), e.getMessage());
+                    return Flux.fromIterable(rows).map(row -> PatientImportResult.rejected(row.line(), Status.FAILED,
+                            row.dni(), "Lote revertido: " + e.getMessage()));
+                });
+    }
+
+    /**
+     * INSERT multi-fila de usuarios y luego de pacientes con los IDs generados.
+     *
+     * @return ID de usuario (= ID de paciente) por email
+     */
+    private Mono<Map<String, Long>> insertBoth(List<Row> rows, String password) {
+        return databaseClient.sql(INSERT_USERS_SQL)
+                .bind("role", Role.ROLE_PATIENT.name())
+                .bind("password", password)
+                .bind("usernames", rows.stream().map(Row::email).toArray(String[]::new))
+                .map((row, metadata) -> Map.entry(
+                        Objects.requireNonNull(row.get("username", String.class)),
+                        Objects.requireNonNull(row.get("id", Long.class))))
+                .all()
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                .flatMap(ids -> databaseClient.sql(INSERT_PATIENTS_SQL)
+                        .bind("ids", rows.stream().map(row -> ids.get(row.email())).toArray(Long[]::new))
+                        .bind("names", rows.stream().map(Row::name).toArray(String[]::new))
+                        .bind("emails", rows.stream().map(Row::email).toArray(String[]::new))
+                        .bind("phones", rows.stream().map(Row::phone).toArray(String[]::new))
+                        .bind("dnis", rows.stream().map(Row::dni).toArray(String[]::new))
+                        .fetch()
+                        .rowsUpdated()
+                        .thenReturn(ids));
+    }
+
+    /**
+     * Ya confirmado el lote: invalida solo las claves por ID y DNI de estos
+     * pacientes (borra los "no encontrado" cacheados; el resto de la región
+     * sigue caliente), difundidas en una sola notificación, y agrega los
+     * nombres al autocompletado. Un fallo aquí no cambia el resultado de
+     * filas que ya están en la BD.
+     */
+    private Mono<Void> publish(List<Row> rows, Map<String, Long> ids) {
+        log.info("Importados {} pacientes (líneas {}-{})", rows.size(), rows.get(0).line(),
+                rows.get(rows.size() - 1).line());
+        List<String> keys = new ArrayList<>(rows.size() * 2);
+        for (Row row : rows) {
+            keys.add(PatientService.CACHE_PREFIX + ids.get(row.email()));
+            keys.add(PatientService.CACHE_DNI_PREFIX + row.dni());
+        }
+        return reactiveCache.evictAfterCommit(keys)
+                .thenMany(Flux.fromIterable(rows)
+                        .concatMap(row -> typeaheadIndex.putAfterCommit(TypeaheadIndex.Kind.PATIENT,
+                                ids.get(row.email()), row.name())))
+                .then()
+                .onErrorResume(e -> {
+                    log.warn("No se pudo invalidar el caché tras importar pacientes: {}", e.getMessage());
+                    return Mono.empty();
+                });
+    }
+}
@@ -1,23 +1,33 @@
 package com.clinica.mentalhealth.service;
 
+import com.clinica.mentalhealth.config.ReactiveCache;
+import com.clinica.mentalhealth.config.ReactiveCacheable;
 import com.clinica.mentalhealth.domain.Patient;
 import com.clinica.mentalhealth.domain.Role;
-import com.clinica.mentalhealth.domain.User;
+import com.clinica.mentalhealth.repository.CursorStreamer;
+import com.clinica.mentalhealth.repository.PatientNameSearch;
 import com.clinica.mentalhealth.repository.PatientRepository;
+import com.clinica.mentalhealth.repository.TableStatistics;
 import com.clinica.mentalhealth.repository.UserRepository;
+import com.clinica.mentalhealth.security.PasswordHashingService;
+import com.clinica.mentalhealth.web.dto.CursorPage;
+import io.r2dbc.postgresql.api.PostgresqlException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.lang.NonNull;
 import org.springframework.r2dbc.core.DatabaseClient;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 @Slf4j
 @Service
@@ -26,11 +36,33 @@ public class PatientService {
 
         private static final String PATIENT_NOT_FOUND = "Paciente no encontrado con ID: ";
         private static final String BIND_EMAIL = "email";
+        static final String CACHE_PREFIX = "patient:";
+        /** Contraseña inicial de los pacientes creados por administración. */
+        static final String INITIAL_PASSWORD = "123";
+        private static final String DNI_CONSTRAINT = "patients_dni_key";
+        private static final String USERNAME_CONSTRAINT = "users_username_key";
+
+        private static final String CREATE_PATIENT_SQL = """
+                        WITH new_user AS (
+                            INSERT INTO "users" (username, password, role)
+                            VALUES (:email, :password, :role)
+                            RETURNING id
+                        )
+                        INSERT INTO "patients" (id, name, email, phone, dni)
+                        SELECT id, :name, :email, :phone, :dni FROM new_user
+                        RETURNING id
+                        """;
+        static final String CACHE_DNI_PREFIX = CACHE_PREFIX + "dni:";
 
         private final PatientRepository patientRepository;
         private final UserRepository userRepository;
-        private final PasswordEncoder passwordEncoder;
+        private final PasswordHashingService passwordHashingService;
         private final DatabaseClient databaseClient;
+        private final TableStatistics tableStatistics;
+        private final CursorStreamer cursorStreamer;
+        private final ReactiveCache reactiveCache;
+        private final PatientNameSearch patientNameSearch;
+        private final TypeaheadIndex typeaheadIndex;
 
         /**
          * Obtiene todos los pacientes.
@@ -41,8 +73,36 @@ public class PatientService {
         }
 
         /**
-         * Obtiene un paciente por su ID.
+         * Obtiene todos los pacientes leyendo con cursor, para listados NDJSON/SSE.
          */
+        public Flux<Patient> streamAll() {
+                log.debug("Streaming de todos los pacientes");
+                return cursorStreamer.stream(Patient.class, "SELECT * FROM patients ORDER BY id", Map.of());
+        }
+
+        /**
+         * Página de pacientes con paginación keyset por "id" (por defecto) o "name".
+         */
+        public Mono<CursorPage<Patient>> findPage(String sort, String cursor, Integer size, boolean includeTotal) {
+                return Mono.defer(() -> {
+                        int pageSize = PageCursor.pageSize(size);
+                        String kind = PageCursor.peopleSort(sort);
+                        PageCursor.Position after = PageCursor.decode(cursor, kind);
+                        Flux<Patient> rows = PageCursor.SORT_NAME.equals(kind)
+                                        ? patientRepository.findPageOrderByName(
+                                                        after.isFirst() ? "" : after.key(), after.idOrZero(), pageSize + 1)
+                                        : patientRepository.findPageOrderById(after.idOrZero(), pageSize + 1);
+                        return PageCursor.toPage(rows, pageSize,
+                                        e -> PageCursor.encode(kind, PageCursor.SORT_NAME.equals(kind) ? e.name() : null, e.id()),
+                                        includeTotal ? tableStatistics.approximateRowCount("patients") : Mono.empty());
+                });
+        }
+
+        /**
+         * Obtiene un paciente por su ID. Los IDs inexistentes también se
+         * cachean (negative caching, TTL corto).
+         */
+        @ReactiveCacheable(key = "'" + CACHE_PREFIX + "' + #id", cacheMisses = true)
         public Mono<Patient> findById(@NonNull Long id) {
                 log.debug("Buscando paciente con ID: {}", id);
                 return patientRepository.findById(id)
@@ -53,52 +113,49 @@ public class PatientService {
         /**
          * Búsqueda Híbrida:
          * - Si 'query' son solo números -> Busca por DNI (exacta).
-         * - Si tiene letras -> Busca por Nombre (fuzzy con pg_trgm, threshold 0.1).
+         * - Si tiene letras -> Busca por Nombre (fuzzy con pg_trgm, ver PatientNameSearch).
+         *
+         * Las búsquedas por DNI se cachean, incluidas las que no encuentran nada.
          */
+        @ReactiveCacheable(key = "'" + CACHE_DNI_PREFIX + "' + #query", condition = "#query.matches('\\d+')",
+                        cacheMisses = true)
         public Flux<Patient> searchPatient(String query) {
                 log.debug("Búsqueda híbrida de paciente con query: {}", query);
                 if (query.matches("\\d+")) {
                         return patientRepository.findByDni(query).flux();
                 } else {
-                        return patientRepository.findByNameLike(query);
+                        return patientNameSearch.findByName(query);
                 }
         }
 
-        @Transactional
+        /**
+         * Crea usuario y paciente en una sola sentencia (CTE): un único viaje a
+         * la BD y sin transacción explícita, porque la sentencia ya es atómica.
+         * Los DNI y emails repetidos se detectan por las restricciones UNIQUE,
+         * no con una lectura previa que otra petición concurrente podría
+         * adelantar.
+         */
         public Mono<Patient> createPatient(String name, String email, String phone, String dni) {
                 log.info("Creando paciente: name={}, email={}, phone={}, dni={}", name, email, phone, dni);
-                return patientRepository.findByDni(dni)
-                                .flatMap(existing -> Mono
-                                                .<Patient>error(new IllegalArgumentException(
-                                                                "Ya existe un paciente con DNI " + dni)))
-                                .switchIfEmpty(
-                                                userRepository.save(new User(null, email, passwordEncoder.encode("123"),
-                                                                Role.ROLE_PATIENT))
-                                                                .flatMap(savedUser -> {
-                                                                        String sql = "INSERT INTO \"patients\" (id, name, email, phone, dni) VALUES (:id, :name, :email, :phone, :dni)";
-
-                                                                        return databaseClient.sql(sql)
-                                                                                        .bind("id", Objects
-                                                                                                        .requireNonNull(savedUser
-                                                                                                                        .id()))
-                                                                                        .bind("name", Objects
-                                                                                                        .requireNonNull(name))
-                                                                                        .bind(BIND_EMAIL, Objects
-                                                                                                        .requireNonNull(email))
-                                                                                        .bind("phone", Objects
-                                                                                                        .requireNonNull(phone))
-                                                                                        .bind("dni", Objects
-                                                                                                        .requireNonNull(dni))
-                                                                                        .fetch()
-                                                                                        .rowsUpdated()
-                                                                                        .doOnSuccess(rows -> log.info(
-                                                                                                        "Paciente creado exitosamente con ID: {}",
-                                                                                                        savedUser.id()))
-                                                                                        .thenReturn(new Patient(
-                                                                                                        savedUser.id(),
-                                                                                                        name, email,
-                                                                                                        phone, dni));
-                                                                }));
+                return passwordHashingService.encode(INITIAL_PASSWORD)
+                                .flatMap(hash -> databaseClient.sql(CREATE_PATIENT_SQL)
+                                                .bind(BIND_EMAIL, Objects.requireNonNull(email))
+                                                .bind("password", hash)
+                                                .bind("role", Role.ROLE_PATIENT.name())
+                                                .bind("name", Objects.requireNonNull(name))
+                                                .bind("phone", Objects.requireNonNull(phone))
+                                                .bind("dni", Objects.requireNonNull(dni))
+                                                .map((row, metadata) -> Objects.requireNonNull(row.get("id", Long.class)))
+                                                .one())
+                                .onErrorMap(DataIntegrityViolationException.class, e -> duplicateOf(e, dni, email))
+                                .map(id -> new Patient(id, name, email, phone, dni))
+                                .doOnSuccess(patient -> log.info("Paciente creado exitosamente con ID: {}",
+                                                patient.id()))
+                                // Borra los "no encontrado" cacheados de este ID/DNI
+                                .flatMap(patient -> evictPatient(patient.id(), dni)
+                                                .then(typeaheadIndex.putAfterCommit(TypeaheadIndex.Kind.PATIENT,
+                                                                patient.id(), name))
+                                                .thenReturn(patient));
         }
 
         @Transactional
@@ -115,14 +172,15 @@ public class PatientService {
                                                                                 new IllegalArgumentException(
                                                                                                 "Ya existe otro paciente con DNI "
                                                                                                                 + dni)))
-                                                                .switchIfEmpty(performUpdate(id, name, email, phone,
+                                                                .switchIfEmpty(performUpdate(existing, name, email, phone,
                                                                                 dni));
                                         }
-                                        return performUpdate(id, name, email, phone, dni);
+                                        return performUpdate(existing, name, email, phone, dni);
                                 });
         }
 
-        private Mono<Patient> performUpdate(@NonNull Long id, String name, String email, String phone, String dni) {
+        private Mono<Patient> performUpdate(Patient existing, String name, String email, String phone, String dni) {
+                Long id = Objects.requireNonNull(existing.id());
                 String sql = "UPDATE \"patients\" SET name = :name, email = :email, phone = :phone, dni = :dni WHERE id = :id";
                 return databaseClient.sql(sql)
                                 .bind("id", id)
@@ -141,7 +199,11 @@ public class PatientService {
                                                         .fetch()
                                                         .rowsUpdated();
                                 })
+                                // El DNI/email pudo tomarlo otra petición después de la verificación
+                                .onErrorMap(DataIntegrityViolationException.class, e -> duplicateOf(e, dni, email))
                                 .doOnSuccess(rows -> log.info("Paciente actualizado exitosamente con ID: {}", id))
+                                .then(evictPatient(id, existing.dni(), dni))
+                                .then(typeaheadIndex.putAfterCommit(TypeaheadIndex.Kind.PATIENT, id, name))
                                 .thenReturn(new Patient(id, name, email, phone, dni));
         }
 
@@ -154,6 +216,45 @@ public class PatientService {
                                 .flatMap(existing -> patientRepository.deleteById(id)
                                                 .then(userRepository.deleteById(id))
                                                 .doOnSuccess(v -> log.info("Paciente eliminado exitosamente con ID: {}",
-                                                                id)));
+                                                                id))
+                                                .then(evictPatient(id, existing.dni()))
+                                                .then(typeaheadIndex.removeAfterCommit(TypeaheadIndex.Kind.PATIENT, id)));
+        }
+
+        /**
+         * Traduce la violación de una restricción UNIQUE conocida a un error 400.
+         */
+        private static Throwable duplicateOf(DataIntegrityViolationException e, String dni, String email) {
+                String constraint = constraintOf(e);
+                if (DNI_CONSTRAINT.equals(constraint)) {
+                        return new IllegalArgumentException("Ya existe un paciente con DNI " + dni);
+                }
+                if (USERNAME_CONSTRAINT.equals(constraint)) {
+                        return new IllegalArgumentException("Ya existe un usuario con email " + email);
+                }
+                return e;
+        }
+
+        private static String constraintOf(Throwable error) {
+                for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+                        if (cause instanceof PostgresqlException postgres) {
+                                return postgres.getErrorDetails().getConstraintName().orElse(null);
+                        }
+                }
+                return null;
+        }
+
+        /**
+         * Invalida (tras el commit) las entradas del paciente por ID y por cada DNI dado.
+         */
+        private Mono<Void> evictPatient(Long id, String... dnis) {
+                Set<String> keys = new LinkedHashSet<>();
+                keys.add(CACHE_PREFIX + id);
+                for (String dni : dnis) {
+                        if (dni != null) {
+                                keys.add(CACHE_DNI_PREFIX + dni);
+                        }
+                }
+                return reactiveCache.evictAfterCommit(keys);
         }
 }
@@ -1,17 +1,21 @@
 package com.clinica.mentalhealth.service;
 
-import com.clinica.mentalhealth.config.ReactiveCache;
+import com.clinica.mentalhealth.config.ReactiveCacheEvict;
+import com.clinica.mentalhealth.config.ReactiveCacheable;
 import com.clinica.mentalhealth.domain.Psychologist;
 import com.clinica.mentalhealth.domain.Role;
 import com.clinica.mentalhealth.domain.User;
 import com.clinica.mentalhealth.repository.PsychologistRepository;
+import com.clinica.mentalhealth.repository.PsychologistSearch;
+import com.clinica.mentalhealth.repository.TableStatistics;
 import com.clinica.mentalhealth.repository.UserRepository;
+import com.clinica.mentalhealth.security.PasswordHashingService;
+import com.clinica.mentalhealth.web.dto.CursorPage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.lang.NonNull;
 import org.springframework.r2dbc.core.DatabaseClient;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
@@ -28,13 +32,16 @@ public class PsychologistService {
 
         private static final String PSYCHOLOGIST_NOT_FOUND = "Psicólogo no encontrado con ID: ";
         private static final String CACHE_PREFIX = "psychologist:";
-        private static final String CACHE_ALL = CACHE_PREFIX + "all";
+        static final int SEARCH_DEFAULT_LIMIT = 10;
+        static final int SEARCH_MAX_LIMIT = 50;
 
         private final PsychologistRepository psychologistRepository;
         private final UserRepository userRepository;
-        private final PasswordEncoder passwordEncoder;
+        private final PasswordHashingService passwordHashingService;
         private final DatabaseClient databaseClient;
-        private final ReactiveCache reactiveCache;
+        private final TableStatistics tableStatistics;
+        private final TypeaheadIndex typeaheadIndex;
+        private final PsychologistSearch psychologistSearch;
 
         // --- LECTURA ---
 
@@ -46,41 +53,85 @@ public class PsychologistService {
                 return psychologistRepository.findAll();
         }
 
+        /**
+         * Página de psicólogos con paginación keyset por "id" (por defecto) o "name".
+         */
+        public Mono<CursorPage<Psychologist>> findPage(String sort, String cursor, Integer size, boolean includeTotal) {
+                return Mono.defer(() -> {
+                        int pageSize = PageCursor.pageSize(size);
+                        String kind = PageCursor.peopleSort(sort);
+                        PageCursor.Position after = PageCursor.decode(cursor, kind);
+                        Flux<Psychologist> rows = PageCursor.SORT_NAME.equals(kind)
+                                        ? psychologistRepository.findPageOrderByName(
+                                                        after.isFirst() ? "" : after.key(), after.idOrZero(), pageSize + 1)
+                                        : psychologistRepository.findPageOrderById(after.idOrZero(), pageSize + 1);
+                        return PageCursor.toPage(rows, pageSize,
+                                        e -> PageCursor.encode(kind, PageCursor.SORT_NAME.equals(kind) ? e.name() : null, e.id()),
+                                        includeTotal ? tableStatistics.approximateRowCount("psychologists") : Mono.empty());
+                });
+        }
+
         /**
          * Versión cacheada reactiva que retorna Mono<List>.
          * Usa ReactiveCache para caché no bloqueante.
          */
+        @ReactiveCacheable(key = "'" + CACHE_PREFIX + "all'")
         public Mono<List<Psychologist>> findAllCached() {
-                return reactiveCache.cacheList(CACHE_ALL, () -> {
-                        log.debug("Cache miss: buscando todos los psicólogos de BD");
-                        return psychologistRepository.findAll().collectList();
-                });
+                log.debug("Cache miss: buscando todos los psicólogos de BD");
+                return psychologistRepository.findAll().collectList();
         }
 
         /**
-         * Busca un psicólogo por ID con caché reactivo.
+         * Busca un psicólogo por ID con caché reactivo. Los IDs inexistentes
+         * también se cachean (negative caching, TTL corto).
          */
+        @ReactiveCacheable(key = "'" + CACHE_PREFIX + "' + #id", cacheMisses = true)
         public Mono<Psychologist> findById(@NonNull Long id) {
-                String cacheKey = CACHE_PREFIX + id;
-                return reactiveCache.cacheMono(cacheKey, () -> {
-                        log.debug("Cache miss: buscando psicólogo con ID: {}", id);
-                        return psychologistRepository.findById(id)
-                                        .switchIfEmpty(Mono.error(new ResponseStatusException(
-                                                        HttpStatus.NOT_FOUND, PSYCHOLOGIST_NOT_FOUND + id)));
+                log.debug("Cache miss: buscando psicólogo con ID: {}", id);
+                return psychologistRepository.findById(id)
+                                .switchIfEmpty(Mono.error(new ResponseStatusException(
+                                                HttpStatus.NOT_FOUND, PSYCHOLOGIST_NOT_FOUND + id)));
+        }
+
+        /**
+         * Busca psicólogos por nombre (tolera errores de tipeo) y/o especialidad
+         * (exacta) en la BD, sin traer la nómina completa. Se requiere al menos
+         * uno de los dos filtros.
+         */
+        public Flux<Psychologist> search(String name, String specialty, Integer limit) {
+                return Flux.defer(() -> {
+                        String byName = blankToNull(name);
+                        String bySpecialty = blankToNull(specialty);
+                        if (byName == null && bySpecialty == null) {
+                                return Flux.error(new IllegalArgumentException(
+                                                "Indique un nombre o una especialidad para buscar."));
+                        }
+                        int max = limit != null ? limit : SEARCH_DEFAULT_LIMIT;
+                        if (max < 1 || max > SEARCH_MAX_LIMIT) {
+                                return Flux.error(new IllegalArgumentException(
+                                                "El límite de resultados debe estar entre 1 y " + SEARCH_MAX_LIMIT + "."));
+                        }
+                        log.debug("Buscando psicólogos: name={}, specialty={}, limit={}", byName, bySpecialty, max);
+                        return psychologistSearch.search(byName, bySpecialty, max);
                 });
         }
 
+        private static String blankToNull(String value) {
+                return value == null || value.isBlank() ? null : value.trim();
+        }
+
         // --- CREACIÓN (Transaccional: User + Psychologist) ---
         @Transactional
+        @ReactiveCacheEvict(prefix = CACHE_PREFIX)
         public Mono<Psychologist> createPsychologist(String name, String specialty, String email, String phone,
                         String dni, String username, String password) {
                 log.info("Creando psicólogo: name={}, specialty={}, email={}, dni={}, username={}",
                                 name, specialty, email, dni, username);
 
                 // 1. Crear Usuario con Rol de Psicólogo
-                User newUser = new User(null, username, passwordEncoder.encode(password), Role.ROLE_PSYCHOLOGIST);
-
-                return userRepository.save(newUser)
+                return passwordHashingService.encode(password)
+                                .map(hash -> new User(null, username, hash, Role.ROLE_PSYCHOLOGIST))
+                                .flatMap(userRepository::save)
                                 .flatMap(savedUser -> {
                                         // 2. Insertar Psicólogo forzando el ID del usuario (SQL Nativo)
                                         String sql = "INSERT INTO \"psychologists\" (id, name, specialty, email, phone, dni) "
@@ -99,15 +150,16 @@ public class PsychologistService {
                                                         .doOnSuccess(rows -> log.info(
                                                                         "Psicólogo creado exitosamente con ID: {}",
                                                                         savedUser.id()))
+                                                        .then(typeaheadIndex.putAfterCommit(
+                                                                        TypeaheadIndex.Kind.PSYCHOLOGIST, savedUser.id(), name))
                                                         .thenReturn(new Psychologist(savedUser.id(), name, specialty,
                                                                         email, phone, dni));
-                                })
-                                // Invalidar caché después de crear
-                                .flatMap(p -> reactiveCache.evictByPrefix(CACHE_PREFIX).thenReturn(p));
+                                });
         }
 
         // --- ACTUALIZACIÓN ---
         @Transactional
+        @ReactiveCacheEvict(prefix = CACHE_PREFIX)
         public Mono<Psychologist> updatePsychologist(@NonNull Long id, String name, String specialty,
                         String email, String phone, String dni) {
                 log.info("Actualizando psicólogo con ID: {}", id);
@@ -129,15 +181,16 @@ public class PsychologistService {
                                                         .doOnSuccess(rows -> log.info(
                                                                         "Psicólogo actualizado exitosamente con ID: {}",
                                                                         id))
+                                                        .then(typeaheadIndex.putAfterCommit(
+                                                                        TypeaheadIndex.Kind.PSYCHOLOGIST, id, name))
                                                         .thenReturn(new Psychologist(id, name, specialty, email, phone,
                                                                         dni));
-                                })
-                                // Invalidar caché después de actualizar
-                                .flatMap(p -> reactiveCache.evictByPrefix(CACHE_PREFIX).thenReturn(p));
+                                });
         }
 
         // --- ELIMINACIÓN (Transaccional: Psychologist + User) ---
         @Transactional
+        @ReactiveCacheEvict(prefix = CACHE_PREFIX)
         public Mono<Void> deletePsychologist(@NonNull Long id) {
                 log.info("Eliminando psicólogo con ID: {}", id);
                 return psychologistRepository.findById(id)
@@ -148,8 +201,8 @@ public class PsychologistService {
                                 psychologistRepository.deleteById(Objects.requireNonNull(p.id()))
                                                 .then(userRepository.deleteById(id))
                                                 .doOnSuccess(v -> log.info(
-                                                                "Psicólogo eliminado exitosamente con ID: {}", id)))
-                                // Invalidar caché después de eliminar
-                                .then(reactiveCache.evictByPrefix(CACHE_PREFIX));
+                                                                "Psicólogo eliminado exitosamente con ID: {}", id))
+                                                .then(typeaheadIndex.removeAfterCommit(
+                                                                TypeaheadIndex.Kind.PSYCHOLOGIST, id)));
         }
 }
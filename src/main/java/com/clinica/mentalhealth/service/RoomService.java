@@ -1,8 +1,11 @@
 package com.clinica.mentalhealth.service;
 
-import com.clinica.mentalhealth.config.ReactiveCache;
+import com.clinica.mentalhealth.config.ReactiveCacheEvict;
+import com.clinica.mentalhealth.config.ReactiveCacheable;
 import com.clinica.mentalhealth.domain.Room;
 import com.clinica.mentalhealth.repository.RoomRepository;
+import com.clinica.mentalhealth.repository.TableStatistics;
+import com.clinica.mentalhealth.web.dto.CursorPage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -24,10 +27,9 @@ public class RoomService {
     private static final String ROOM_NOT_FOUND = "Sala no encontrada";
     private static final String ROOM_ID_REQUIRED = "ID de sala requerido";
     private static final String CACHE_PREFIX = "room:";
-    private static final String CACHE_ALL = CACHE_PREFIX + "all";
 
     private final RoomRepository roomRepository;
-    private final ReactiveCache reactiveCache;
+    private final TableStatistics tableStatistics;
 
     // --- LECTURA ---
 
@@ -39,60 +41,67 @@ public class RoomService {
         return roomRepository.findAll();
     }
 
+    /**
+     * Página de salas ordenadas por ID (paginación keyset).
+     */
+    public Mono<CursorPage<Room>> findPage(String cursor, Integer size, boolean includeTotal) {
+        return Mono.defer(() -> {
+            int pageSize = PageCursor.pageSize(size);
+            PageCursor.Position after = PageCursor.decode(cursor, PageCursor.SORT_ID);
+            return PageCursor.toPage(roomRepository.findPageOrderById(after.idOrZero(), pageSize + 1), pageSize,
+                    room -> PageCursor.encode(PageCursor.SORT_ID, null, room.id()),
+                    includeTotal ? tableStatistics.approximateRowCount("rooms") : Mono.empty());
+        });
+    }
+
     /**
      * Versión cacheada reactiva que retorna Mono<List>.
      * Usa ReactiveCache para caché no bloqueante.
      */
+    @ReactiveCacheable(key = "'" + CACHE_PREFIX + "all'")
     public Mono<List<Room>> findAllCached() {
-        return reactiveCache.cacheList(CACHE_ALL, () -> {
-            log.debug("Cache miss: buscando todas las salas de BD");
-            return roomRepository.findAll().collectList();
-        });
+        log.debug("Cache miss: buscando todas las salas de BD");
+        return roomRepository.findAll().collectList();
     }
 
     /**
      * Busca una sala por ID con caché reactivo.
      */
+    @ReactiveCacheable(key = "'" + CACHE_PREFIX + "' + #id")
     public Mono<Room> findById(@NonNull Long id) {
-        String cacheKey = CACHE_PREFIX + id;
-        return reactiveCache.cacheMono(cacheKey, () -> {
-            log.debug("Cache miss: buscando sala con ID: {}", id);
-            return roomRepository.findById(Objects.requireNonNull(id, ROOM_ID_REQUIRED))
-                    .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, ROOM_NOT_FOUND)));
-        });
+        log.debug("Cache miss: buscando sala con ID: {}", id);
+        return roomRepository.findById(Objects.requireNonNull(id, ROOM_ID_REQUIRED))
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, ROOM_NOT_FOUND)));
     }
 
     // --- CREACIÓN ---
 
     @Transactional
+    @ReactiveCacheEvict(prefix = CACHE_PREFIX)
     public Mono<Room> createRoom(String name) {
         log.info("Creando sala: {}", name);
-        return roomRepository.save(new Room(null, name))
-                // Invalidar caché después de crear
-                .flatMap(room -> reactiveCache.evictByPrefix(CACHE_PREFIX).thenReturn(room));
+        return roomRepository.save(new Room(null, name));
     }
 
     // --- ACTUALIZACIÓN ---
 
     @Transactional
+    @ReactiveCacheEvict(prefix = CACHE_PREFIX)
     public Mono<Room> updateRoom(@NonNull Long id, String name) {
         log.info("Actualizando sala con ID: {}", id);
         return roomRepository.findById(Objects.requireNonNull(id, ROOM_ID_REQUIRED))
                 .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, ROOM_NOT_FOUND)))
-                .flatMap(existing -> roomRepository.save(new Room(existing.id(), name)))
-                // Invalidar caché después de actualizar
-                .flatMap(room -> reactiveCache.evictByPrefix(CACHE_PREFIX).thenReturn(room));
+                .flatMap(existing -> roomRepository.save(new Room(existing.id(), name)));
     }
 
     // --- ELIMINACIÓN ---
 
     @Transactional
+    @ReactiveCacheEvict(prefix = CACHE_PREFIX)
     public Mono<Void> deleteRoom(@NonNull Long id) {
         log.info("Eliminando sala con ID: {}", id);
         return roomRepository.findById(Objects.requireNonNull(id, ROOM_ID_REQUIRED))
                 .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, ROOM_NOT_FOUND)))
-                .flatMap(roomRepository::delete)
-                // Invalidar caché después de eliminar
-                .then(reactiveCache.evictByPrefix(CACHE_PREFIX));
+                .flatMap(roomRepository::delete);
     }
 }
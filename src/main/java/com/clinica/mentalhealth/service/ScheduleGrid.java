@@ -0,0 +1,83 @@
+package com.clinica.mentalhealth.service;
+
+import com.clinica.mentalhealth.domain.Appointment;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Grilla de slots de una hora dentro del horario comercial (08:00 - 22:00).
+ *
+ * La disponibilidad de un día se representa como un {@code long} donde el bit
+ * {@code i} corresponde al slot que empieza a las {@code 08:00 + i horas}
+ * (bit en 1 = slot libre). Así, intersectar agendas es un AND de bits y una
+ * semana de un psicólogo ocupa 7 números.
+ */
+public final class ScheduleGrid {
+
+    public static final int FIRST_HOUR = BusinessHours.OPENING_TIME.getHour();
+    public static final int SLOT_COUNT = BusinessHours.CLOSING_TIME.getHour() - FIRST_HOUR;
+
+    public static final long ALL_SLOTS = (1L << SLOT_COUNT) - 1;
+
+    private ScheduleGrid() {
+        // Utility class - prevent instantiation
+    }
+
+    /**
+     * Slots en los que la clínica atiende ese día (ninguno los domingos).
+     */
+    public static long openMask(LocalDate day) {
+        return day.getDayOfWeek() == DayOfWeek.SUNDAY ? 0L : ALL_SLOTS;
+    }
+
+    /**
+     * Slots del día que se solapan (aunque sea parcialmente) con la cita.
+     */
+    public static long occupiedMask(LocalDate day, Appointment appointment) {
+        long mask = 0L;
+        for (int slot = 0; slot < SLOT_COUNT; slot++) {
+            LocalDateTime slotStart = slotStart(day, slot);
+            if (appointment.startTime().isBefore(slotStart.plusHours(1))
+                    && appointment.endTime().isAfter(slotStart)) {
+                mask |= 1L << slot;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Slots libres del día dadas las citas que lo tocan.
+     */
+    public static long freeMask(LocalDate day, Iterable<Appointment> appointments) {
+        long free = openMask(day);
+        for (Appointment appointment : appointments) {
+            free &= ~occupiedMask(day, appointment);
+        }
+        return free;
+    }
+
+    public static LocalDateTime slotStart(LocalDate day, int slot) {
+        return day.atTime(FIRST_HOUR + slot, 0);
+    }
+
+    /**
+     * Convierte una máscara a etiquetas "HH:mm" (ej: ["09:00", "10:00"]).
+     */
+    public static List<String> labels(long mask) {
+        List<String> labels = new ArrayList<>();
+        for (int slot = 0; slot < SLOT_COUNT; slot++) {
+            if ((mask & (1L << slot)) != 0) {
+                labels.add(label(slot));
+            }
+        }
+        return labels;
+    }
+
+    public static String label(int slot) {
+        return String.format("%02d:00", FIRST_HOUR + slot);
+    }
+}
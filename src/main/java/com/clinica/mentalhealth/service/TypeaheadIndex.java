@@ -0,0 +1,289 @@
+package com.clinica.mentalhealth.service;
+
+import com.clinica.mentalhealth.config.AfterCommit;
+import com.clinica.mentalhealth.repository.PatientRepository;
+import com.clinica.mentalhealth.repository.PsychologistRepository;
+import com.clinica.mentalhealth.web.dto.NameSuggestion;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Índice de prefijos en memoria para el autocompletado de nombres.
+ *
+ * Por cada tipo (pacientes, psicólogos) guarda un mapa ordenado cuyas claves
+ * son el nombre normalizado (minúsculas, sin tildes) a partir de cada palabra:
+ * "Luis González Prado" se indexa como "luis gonzalez prado", "gonzalez prado"
+ * y "prado". Así "gonz" encuentra al paciente aunque no sea su primer nombre,
+ * y las k primeras coincidencias salen de un subMap en O(log n + k).
+ *
+ * Se carga al arrancar, se actualiza tras el commit de cada alta, edición o
+ * baja, aplica los cambios de otras instancias que llegan por LISTEN/NOTIFY
+ * ({@link NameChangeFeed}) y se resincroniza periódicamente para absorber
+ * notificaciones perdidas. Como en {@link AppointmentIntervalIndex}, la
+ * fuente de verdad sigue siendo la BD.
+ *
+ * Los cambios que llegan mientras una recarga recorre la tabla se aplican al
+ * índice vigente y además se guardan, para repetirlos sobre el índice nuevo
+ * antes de publicarlo: si no, se perderían hasta la siguiente recarga.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TypeaheadIndex {
+
+    public enum Kind {
+        PATIENT, PSYCHOLOGIST
+    }
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final PatientRepository patientRepository;
+    private final PsychologistRepository psychologistRepository;
+    private final NameChangeFeed nameChangeFeed;
+
+    private final Map<Kind, Names> names = new ConcurrentHashMap<>();
+    // Cambios recibidos durante la recarga en curso de cada tipo
+    private final Map<Kind, List<Consumer<Names>>> pendingDuringReload = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+    private volatile Disposable changeSubscription;
+
+    /**
+     * Indica si el índice de ese tipo ya se cargó desde la BD.
+     */
+    public boolean isLoaded(Kind kind) {
+        return names.containsKey(kind);
+    }
+
+    /**
+     * Hasta {@code limit} nombres con alguna palabra que empieza por
+     * {@code prefix}, en orden alfabético de la palabra coincidente.
+     */
+    public List<NameSuggestion> suggest(Kind kind, String prefix, int limit) {
+        Names current = names.get(kind);
+        String normalized = normalize(prefix);
+        if (current == null || normalized.isEmpty()) {
+            return List.of();
+        }
+        return current.suggest(normalized, limit);
+    }
+
+    /**
+     * Registra (o renombra) una entrada cuando confirma la transacción en curso
+     * (ver {@link AfterCommit}).
+     */
+    public Mono<Void> putAfterCommit(Kind kind, Long id, String name) {
+        return afterCommit(() -> put(kind, id, name));
+    }
+
+    /**
+     * Elimina una entrada cuando confirma la transacción en curso.
+     */
+    public Mono<Void> removeAfterCommit(Kind kind, Long id) {
+        return afterCommit(() -> remove(kind, id));
+    }
+
+    private static Mono<Void> afterCommit(Runnable change) {
+        return AfterCommit.run(Mono.fromRunnable(change));
+    }
+
+    /**
+     * Aplica un cambio publicado por la BD (propio o de otra instancia).
+     */
+    public void apply(NameChangeFeed.NameChange change) {
+        if (change.kind() == null || change.type() == null) {
+            return;
+        }
+        if (change.type() == NameChangeFeed.NameChange.Type.DELETED) {
+            remove(change.kind(), change.id());
+        } else {
+            put(change.kind(), change.id(), change.name());
+        }
+    }
+
+    private void put(Kind kind, Long id, String name) {
+        if (id != null && name != null) {
+            change(kind, target -> target.put(id, name));
+        }
+    }
+
+    private void remove(Kind kind, Long id) {
+        if (id != null) {
+            change(kind, target -> target.remove(id));
+        }
+    }
+
+    private void change(Kind kind, Consumer<Names> change) {
+        synchronized (lock) {
+            Names current = names.get(kind);
+            if (current != null) {
+                change.accept(current);
+            }
+            List<Consumer<Names>> pending = pendingDuringReload.get(kind);
+            if (pending != null) {
+                pending.add(change);
+            }
+        }
+    }
+
+    /**
+     * Reconstruye el índice desde la BD y lo publica de forma atómica.
+     */
+    public Mono<Void> reload() {
+        return Mono.when(
+                load(Kind.PATIENT, patientRepository.findAll()
+                        .map(p -> new NameSuggestion(p.id(), p.name()))),
+                load(Kind.PSYCHOLOGIST, psychologistRepository.findAll()
+                        .map(p -> new NameSuggestion(p.id(), p.name()))));
+    }
+
+    private Mono<Void> load(Kind kind, Flux<NameSuggestion> rows) {
+        return Mono.defer(() -> {
+            List<Consumer<Names>> pending = new ArrayList<>();
+            // Se registra antes de leer la tabla: lo que cambie desde aquí se repite sobre "fresh"
+            synchronized (lock) {
+                if (pendingDuringReload.putIfAbsent(kind, pending) != null) {
+                    log.debug("Recarga del índice de autocompletado {} ya en curso", kind);
+                    return Mono.<Void>empty();
+                }
+            }
+            Names fresh = new Names();
+            return rows.doOnNext(row -> fresh.put(row.id(), row.name()))
+                    .then(Mono.<Void>fromRunnable(() -> {
+                        synchronized (lock) {
+                            pending.forEach(change -> change.accept(fresh));
+                            names.put(kind, fresh);
+                            pendingDuringReload.remove(kind, pending);
+                        }
+                        log.debug("Índice de autocompletado cargado: {} {}", fresh.size(), kind);
+                    }))
+                    .doFinally(signal -> {
+                        synchronized (lock) {
+                            pendingDuringReload.remove(kind, pending);
+                        }
+                    });
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload().subscribe(
+                null,
+                error -> log.warn("No se pudo cargar el índice de autocompletado, se usará la BD: {}",
+                        error.getMessage()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void followChanges() {
+        changeSubscription = nameChangeFeed.changes().subscribe(
+                this::apply,
+                error -> log.warn("Se dejó de seguir los cambios de nombres: {}", error.getMessage()));
+    }
+
+    @PreDestroy
+    public void stopFollowingChanges() {
+        Disposable subscription = changeSubscription;
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${search.typeahead.resync-interval:PT5M}",
+            initialDelayString = "${search.typeahead.resync-interval:PT5M}")
+    public void resync() {
+        loadOnStartup();
+    }
+
+    /**
+     * Minúsculas, sin tildes ni diéresis y con un solo espacio entre palabras
+     * ("  Peña-Núñez " → "pena nunez").
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        String plain = DIACRITICS.matcher(decomposed).replaceAll("");
+        return SEPARATORS.matcher(plain.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    /**
+     * Nombres de un tipo. Las escrituras se serializan para que la baja de las
+     * claves viejas y el alta de las nuevas no se intercalen; las lecturas no
+     * toman el lock.
+     */
+    static final class Names {
+
+        // Clave: sufijo del nombre normalizado desde una palabra + '\0' + id
+        private final ConcurrentSkipListMap<String, Long> byWord = new ConcurrentSkipListMap<>();
+        private final Map<Long, String> byId = new ConcurrentHashMap<>();
+
+        synchronized void put(Long id, String name) {
+            remove(id);
+            byId.put(id, name);
+            for (String key : keysOf(id, name)) {
+                byWord.put(key, id);
+            }
+        }
+
+        synchronized void remove(Long id) {
+            String previous = byId.remove(id);
+            if (previous != null) {
+                keysOf(id, previous).forEach(byWord::remove);
+            }
+        }
+
+        int size() {
+            return byId.size();
+        }
+
+        List<NameSuggestion> suggest(String normalizedPrefix, int limit) {
+            Set<Long> ids = new LinkedHashSet<>();
+            for (Long id : byWord.subMap(normalizedPrefix, normalizedPrefix + Character.MAX_VALUE).values()) {
+                if (ids.size() >= limit) {
+                    break;
+                }
+                ids.add(id);
+            }
+            List<NameSuggestion> result = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                String name = byId.get(id);
+                if (name != null) {
+                    result.add(new NameSuggestion(id, name));
+                }
+            }
+            return result;
+        }
+
+        private static List<String> keysOf(Long id, String name) {
+            String normalized = normalize(name);
+            List<String> keys = new ArrayList<>();
+            for (int i = 0; i < normalized.length(); i++) {
+                if (i == 0 || normalized.charAt(i - 1) == ' ') {
+                    keys.add(normalized.substring(i) + '\0' + id);
+                }
+            }
+            return keys;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.clinica.mentalhealth.service;
+
+import com.clinica.mentalhealth.repository.PatientNameSearch;
+import com.clinica.mentalhealth.web.dto.NameSuggestion;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Autocompletado de nombres para el buscador de recepción.
+ *
+ * Responde desde {@link TypeaheadIndex} sin tocar la BD. Solo si el prefijo
+ * no coincide con ningún nombre (lo normal cuando hay un error de tipeo) y la
+ * consulta es lo bastante larga para pg_trgm, recurre a la búsqueda fuzzy de
+ * {@link PatientNameSearch}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TypeaheadService {
+
+    public static final int DEFAULT_LIMIT = 10;
+    public static final int MAX_LIMIT = 20;
+
+    /** Con menos caracteres los trigramas no discriminan: "an" se parece a casi todo. */
+    static final int MIN_FUZZY_LENGTH = 3;
+
+    private final TypeaheadIndex typeaheadIndex;
+    private final PatientNameSearch patientNameSearch;
+    private final PsychologistService psychologistService;
+
+    /**
+     * @param type  "patient" (por defecto) o "psychologist"
+     * @param query lo que lleva escrito el usuario
+     * @param limit máximo de sugerencias (1-20, por defecto 10)
+     */
+    public Mono<List<NameSuggestion>> suggest(String type, String query, Integer limit) {
+        return Mono.defer(() -> {
+            TypeaheadIndex.Kind kind = kindOf(type);
+            int max = limitOf(limit);
+            String normalized = TypeaheadIndex.normalize(query);
+            if (normalized.isEmpty()) {
+                return Mono.just(List.<NameSuggestion>of());
+            }
+            if (!typeaheadIndex.isLoaded(kind)) {
+                return fromDatabase(kind, query, normalized, max);
+            }
+            List<NameSuggestion> hits = typeaheadIndex.suggest(kind, normalized, max);
+            if (!hits.isEmpty() || kind != TypeaheadIndex.Kind.PATIENT || normalized.length() < MIN_FUZZY_LENGTH) {
+                return Mono.just(hits);
+            }
+            log.debug("Autocompletado sin coincidencias para '{}', se usa la búsqueda fuzzy", query);
+            return fuzzyPatients(query, max);
+        });
+    }
+
+    /**
+     * Antes de la primera carga del índice (o si falló): pacientes por
+     * trigramas y psicólogos filtrando la lista cacheada, que es corta.
+     */
+    private Mono<List<NameSuggestion>> fromDatabase(TypeaheadIndex.Kind kind, String query, String normalized,
+            int max) {
+        if (kind == TypeaheadIndex.Kind.PATIENT) {
+            return fuzzyPatients(query, max);
+        }
+        return psychologistService.findAllCached().map(all -> {
+            TypeaheadIndex.Names names = new TypeaheadIndex.Names();
+            all.forEach(p -> names.put(p.id(), p.name()));
+            return names.suggest(normalized, max);
+        });
+    }
+
+    private Mono<List<NameSuggestion>> fuzzyPatients(String query, int max) {
+        return patientNameSearch.findByName(query)
+                .take(max)
+                .map(p -> new NameSuggestion(p.id(), p.name()))
+                .collectList();
+    }
+
+    private static TypeaheadIndex.Kind kindOf(String type) {
+        if (type == null || type.isBlank()) {
+            return TypeaheadIndex.Kind.PATIENT;
+        }
+        return switch (type.toLowerCase(Locale.ROOT)) {
+            case "patient" -> TypeaheadIndex.Kind.PATIENT;
+            case "psychologist" -> TypeaheadIndex.Kind.PSYCHOLOGIST;
+            default -> throw new IllegalArgumentException(
+                    "Tipo de autocompletado inválido: '" + type + "'. Use 'patient' o 'psychologist'.");
+        };
+    }
+
+    private static int limitOf(Integer requested) {
+        if (requested == null) {
+            return DEFAULT_LIMIT;
+        }
+        if (requested < 1 || requested > MAX_LIMIT) {
+            throw new IllegalArgumentException("El límite de sugerencias debe estar entre 1 y " + MAX_LIMIT + ".");
+        }
+        return requested;
+    }
+}
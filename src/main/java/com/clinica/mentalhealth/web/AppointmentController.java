@@ -1,21 +1,33 @@
 package com.clinica.mentalhealth.web;
 
 import com.clinica.mentalhealth.domain.Appointment;
+import com.clinica.mentalhealth.domain.AppointmentEvent;
 import com.clinica.mentalhealth.service.AppointmentService;
+import com.clinica.mentalhealth.web.dto.AppointmentSeriesReport;
+import com.clinica.mentalhealth.web.dto.AppointmentSeriesRequest;
+import com.clinica.mentalhealth.web.dto.AvailabilityMatrix;
+import com.clinica.mentalhealth.web.dto.CursorPage;
+import com.clinica.mentalhealth.web.dto.SlotCandidate;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/appointments")
@@ -24,6 +36,8 @@ import java.time.LocalDateTime;
 @SecurityRequirement(name = "Bearer Authentication")
 public class AppointmentController {
 
+    private static final Duration SSE_HEARTBEAT = Duration.ofSeconds(15);
+
     private final AppointmentService appointmentService;
 
     @GetMapping
@@ -35,17 +49,65 @@ public class AppointmentController {
         return appointmentService.getMyAppointments();
     }
 
+    @GetMapping(produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE })
+    @Operation(summary = "Obtener mis citas (streaming)", description = "Igual que el listado JSON, pero emite cada cita a medida que se lee de la BD (NDJSON o SSE según el header Accept). Recomendado para listados grandes.")
+    @ApiResponse(responseCode = "200", description = "Stream de citas")
+    @ApiResponse(responseCode = "401", description = "No autenticado")
+    public Flux<Appointment> streamAll() {
+        return appointmentService.streamMyAppointments();
+    }
+
+    @GetMapping("/page")
+    @Operation(summary = "Obtener mis citas (paginado)", description = "Mismo filtro por rol que el listado, en orden cronológico con paginación por cursor. Para la página siguiente enviar el 'nextCursor' recibido.")
+    @ApiResponse(responseCode = "200", description = "Página de citas")
+    @ApiResponse(responseCode = "400", description = "Cursor o tamaño de página inválido")
+    @ApiResponse(responseCode = "401", description = "No autenticado")
+    public Mono<CursorPage<Appointment>> getPage(
+            @Parameter(description = "Token 'nextCursor' de la página anterior (omitir para la primera)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamaño de página (1-100, por defecto 20)") @RequestParam(required = false) Integer size,
+            @Parameter(description = "Incluir total aproximado (solo Admin)") @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return appointmentService.getMyAppointmentsPage(cursor, size, includeTotal);
+    }
+
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Cambios de citas en vivo (SSE)", description = "Emite un evento por cada cita creada, cancelada o reprogramada (por cualquier usuario o instancia), filtrado por rol como el listado. Envía un heartbeat cada 15 segundos. Reemplaza el polling de la agenda.")
+    @ApiResponse(responseCode = "200", description = "Stream de eventos")
+    @ApiResponse(responseCode = "401", description = "No autenticado")
+    public Flux<ServerSentEvent<AppointmentEvent>> events() {
+        Flux<ServerSentEvent<AppointmentEvent>> changes = appointmentService.streamMyAppointmentEvents()
+                .map(event -> ServerSentEvent.builder(event)
+                        .id(String.valueOf(event.appointment().id()))
+                        .event(event.type().name())
+                        .build());
+        // Mantiene viva la conexión a través de proxies que cortan conexiones inactivas
+        Flux<ServerSentEvent<AppointmentEvent>> heartbeat = Flux.interval(SSE_HEARTBEAT)
+                .map(tick -> ServerSentEvent.<AppointmentEvent>builder().comment("heartbeat").build());
+        return Flux.merge(changes, heartbeat);
+    }
+
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    @Operation(summary = "Crear cita", description = "Crea una nueva cita. Pacientes solo pueden crear para sí mismos. Validaciones: horario comercial, conflictos de sala/psicólogo/paciente.")
+    @Operation(summary = "Crear cita", description = "Crea una nueva cita. Pacientes solo pueden crear para sí mismos. Si no se indica roomId, se asigna automáticamente una sala activa y libre. Validaciones: horario comercial, conflictos de sala/psicólogo/paciente.")
     @ApiResponse(responseCode = "201", description = "Cita creada exitosamente")
     @ApiResponse(responseCode = "400", description = "Datos inválidos o fuera de horario")
     @ApiResponse(responseCode = "403", description = "Sin permisos para crear esta cita")
-    @ApiResponse(responseCode = "409", description = "Conflicto: sala, psicólogo o paciente ocupado")
+    @ApiResponse(responseCode = "409", description = "Conflicto: sala, psicólogo o paciente ocupado, o ninguna sala libre")
     public Mono<Appointment> create(@RequestBody Appointment appointment) {
         return appointmentService.createAppointment(appointment);
     }
 
+    @PostMapping("/series")
+    @ResponseStatus(HttpStatus.CREATED)
+    @PreAuthorize("hasAnyRole('ADMIN', 'PSYCHOLOGIST')")
+    @Operation(summary = "Agendar serie de citas", description = "Agenda sesiones recurrentes (ej: semanal x 12, o quincenal hasta una fecha). Verifica conflictos de toda la serie en una sola consulta e inserta las sesiones libres en un solo lote. Devuelve el resultado de cada sesión.")
+    @ApiResponse(responseCode = "201", description = "Serie procesada; ver el estado de cada sesión en el reporte")
+    @ApiResponse(responseCode = "400", description = "Datos inválidos (falta 'occurrences' o 'until', o la serie supera 52 sesiones)")
+    @ApiResponse(responseCode = "403", description = "Sin permisos (solo Admin y Psicólogos)")
+    @ApiResponse(responseCode = "409", description = "Conflicto detectado al insertar (ninguna sesión fue agendada)")
+    public Mono<AppointmentSeriesReport> createSeries(@Valid @RequestBody AppointmentSeriesRequest request) {
+        return appointmentService.bookSeries(request);
+    }
+
     @GetMapping("/rooms/{roomId}/check")
     @PreAuthorize("hasAnyRole('ADMIN', 'PSYCHOLOGIST')")
     @Operation(summary = "Verificar disponibilidad de sala", description = "Permite ver si una sala está ocupada en una fecha específica. Solo para Admin y Psicólogos.")
@@ -58,6 +120,34 @@ public class AppointmentController {
         return appointmentService.checkRoomAvailability(roomId, date);
     }
 
+    @GetMapping("/availability")
+    @Operation(summary = "Matriz de disponibilidad", description = "Devuelve, para cada psicólogo y cada día del rango, un bitset de slots de una hora libres (08:00 - 22:00). Máximo 50 psicólogos y 31 días por consulta.")
+    @ApiResponse(responseCode = "200", description = "Matriz de disponibilidad obtenida")
+    @ApiResponse(responseCode = "400", description = "Rango o lista de psicólogos inválida")
+    @ApiResponse(responseCode = "401", description = "No autenticado")
+    public Mono<AvailabilityMatrix> availability(
+            @Parameter(description = "IDs de psicólogos (ej: 1,2,3)") @RequestParam List<Long> psychologistIds,
+            @Parameter(description = "Primer día (formato ISO)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Último día, inclusive (formato ISO)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return appointmentService.getAvailabilityMatrix(psychologistIds, from, to);
+    }
+
+    @GetMapping("/slots")
+    @PreAuthorize("hasAnyRole('ADMIN', 'PSYCHOLOGIST')")
+    @Operation(summary = "Buscar horarios conjuntos", description = "Devuelve los primeros horarios en que el psicólogo, el paciente y alguna sala activa están libres a la vez, del más próximo al más lejano, con la sala sugerida. Horizonte máximo: 8 semanas.")
+    @ApiResponse(responseCode = "200", description = "Candidatos obtenidos (puede ser una lista vacía)")
+    @ApiResponse(responseCode = "400", description = "Parámetros inválidos")
+    @ApiResponse(responseCode = "401", description = "No autenticado")
+    @ApiResponse(responseCode = "403", description = "Sin permisos (solo Admin y Psicólogos)")
+    public Flux<SlotCandidate> findSlots(
+            @Parameter(description = "ID del psicólogo") @RequestParam Long psychologistId,
+            @Parameter(description = "ID del paciente") @RequestParam Long patientId,
+            @Parameter(description = "Desde qué día buscar (formato ISO, por defecto hoy)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Semanas a revisar (1-8, por defecto 2)") @RequestParam(required = false) Integer weeks,
+            @Parameter(description = "Máximo de candidatos (1-20, por defecto 5)") @RequestParam(required = false) Integer limit) {
+        return appointmentService.findJointSlots(psychologistId, patientId, from, weeks, limit);
+    }
+
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     @PreAuthorize("hasAnyRole('ADMIN', 'PSYCHOLOGIST')")
@@ -2,6 +2,8 @@ package com.clinica.mentalhealth.web;
 
 import com.clinica.mentalhealth.repository.UserRepository;
 import com.clinica.mentalhealth.security.JwtService;
+import com.clinica.mentalhealth.security.LoginAttemptTracker;
+import com.clinica.mentalhealth.security.PasswordHashingService;
 import com.clinica.mentalhealth.service.RefreshTokenSessionService;
 import com.clinica.mentalhealth.web.dto.LoginRequest;
 import com.clinica.mentalhealth.web.dto.LoginResponse;
@@ -13,11 +15,11 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -29,7 +31,8 @@ import reactor.core.publisher.Mono;
 public class AuthController {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final LoginAttemptTracker loginAttemptTracker;
     private final JwtService jwtService;
     private final RefreshTokenSessionService refreshTokenSessionService;
 
@@ -41,18 +44,33 @@ public class AuthController {
     @ApiResponse(responseCode = "200", description = "Login exitoso, tokens generados")
     @ApiResponse(responseCode = "401", description = "Credenciales inválidas")
     @ApiResponse(responseCode = "400", description = "Datos de entrada inválidos")
+    @ApiResponse(responseCode = "429", description = "Usuario bloqueado temporalmente por logins fallidos (header Retry-After)")
+    @ApiResponse(responseCode = "503", description = "Demasiados logins simultáneos, reintentar (header Retry-After)")
     public Mono<ResponseEntity<LoginResponse>> login(
             @Valid @RequestBody LoginRequest request,
             ServerHttpRequest httpRequest) {
 
+        // Un username bloqueado se rechaza sin tocar la BD ni BCrypt
+        var lockout = loginAttemptTracker.lockoutRemaining(request.username());
+        if (!lockout.isZero()) {
+            return Mono.just(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, lockout.toSeconds())))
+                    .build());
+        }
+
         String deviceInfo = extractDeviceInfo(httpRequest);
         String ipAddress = extractIpAddress(httpRequest);
 
         return userRepository.findByUsername(request.username())
-                .filter(user -> passwordEncoder.matches(request.password(), user.getPassword()))
+                // BCrypt corre en el pool de hashing, no en el event loop
+                .filterWhen(user -> passwordHashingService.matches(request.password(), user.getPassword()))
+                .doOnNext(user -> loginAttemptTracker.recordSuccess(request.username()))
                 .flatMap(user -> refreshTokenSessionService.createSession(user, deviceInfo, ipAddress))
                 .map(ResponseEntity::ok)
-                .defaultIfEmpty(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+                .switchIfEmpty(Mono.fromSupplier(() -> {
+                    loginAttemptTracker.recordFailure(request.username());
+                    return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+                }));
     }
 
     @PostMapping("/refresh")
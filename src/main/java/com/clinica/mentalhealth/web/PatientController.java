@@ -1,7 +1,10 @@
 package com.clinica.mentalhealth.web;
 
 import com.clinica.mentalhealth.domain.Patient;
+import com.clinica.mentalhealth.service.PatientImportService;
 import com.clinica.mentalhealth.service.PatientService;
+import com.clinica.mentalhealth.web.dto.CursorPage;
+import com.clinica.mentalhealth.web.dto.PatientImportResult;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -14,7 +17,9 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.lang.NonNull;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -28,6 +33,7 @@ import reactor.core.publisher.Mono;
 public class PatientController {
 
   private final PatientService patientService;
+  private final PatientImportService patientImportService;
 
   @GetMapping
   @PreAuthorize("hasRole('ADMIN')")
@@ -44,6 +50,38 @@ public class PatientController {
     return patientService.findAll();
   }
 
+  @GetMapping(
+    produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE }
+  )
+  @PreAuthorize("hasRole('ADMIN')")
+  @Operation(
+    summary = "Listar todos los pacientes (streaming)",
+    description = "Emite cada paciente a medida que se lee de la BD (NDJSON o SSE según el header Accept). Solo accesible por administradores"
+  )
+  @ApiResponse(responseCode = "200", description = "Stream de pacientes")
+  @ApiResponse(responseCode = "403", description = "Acceso denegado")
+  public Flux<Patient> streamAllPatients() {
+    return patientService.streamAll();
+  }
+
+  @GetMapping("/page")
+  @PreAuthorize("hasRole('ADMIN')")
+  @Operation(
+    summary = "Listar pacientes (paginado)",
+    description = "Paginación por cursor, ordenada por 'id' o 'name'. Para la página siguiente enviar el 'nextCursor' recibido."
+  )
+  @ApiResponse(responseCode = "200", description = "Página de pacientes")
+  @ApiResponse(responseCode = "400", description = "Cursor, orden o tamaño de página inválido")
+  @ApiResponse(responseCode = "403", description = "Acceso denegado")
+  public Mono<CursorPage<Patient>> getPage(
+    @Parameter(description = "Orden: 'id' (por defecto) o 'name'") @RequestParam(required = false) String sort,
+    @Parameter(description = "Token 'nextCursor' de la página anterior (omitir para la primera)") @RequestParam(required = false) String cursor,
+    @Parameter(description = "Tamaño de página (1-100, por defecto 20)") @RequestParam(required = false) Integer size,
+    @Parameter(description = "Incluir total aproximado") @RequestParam(defaultValue = "false") boolean includeTotal
+  ) {
+    return patientService.findPage(sort, cursor, size, includeTotal);
+  }
+
   @GetMapping("/{id}")
   @PreAuthorize("hasAnyRole('ADMIN', 'PSYCHOLOGIST')")
   @Operation(
@@ -112,6 +150,30 @@ public class PatientController {
     );
   }
 
+  @PostMapping(
+    value = "/import",
+    consumes = { MediaType.APPLICATION_NDJSON_VALUE, "text/csv" },
+    produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE }
+  )
+  @PreAuthorize("hasRole('ADMIN')")
+  @Operation(
+    summary = "Importar pacientes en bloque",
+    description = "Recibe un CSV (cabecera con name,email,phone,dni) o NDJSON (un objeto por línea) y emite, en streaming, " +
+    "el resultado de cada fila: CREATED, DUPLICATE, INVALID o FAILED. Las filas se insertan por lotes; un error revierte solo su lote."
+  )
+  @ApiResponse(responseCode = "200", description = "Resultado por fila, en el orden del archivo")
+  @ApiResponse(responseCode = "400", description = "Cabecera CSV sin las columnas requeridas")
+  @ApiResponse(responseCode = "403", description = "Acceso denegado")
+  public Flux<PatientImportResult> importPatients(
+    @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+    @RequestBody Flux<String> lines
+  ) {
+    PatientImportService.Format format = MediaType.APPLICATION_NDJSON.isCompatibleWith(MediaType.parseMediaType(contentType))
+      ? PatientImportService.Format.NDJSON
+      : PatientImportService.Format.CSV;
+    return patientImportService.importPatients(lines, format);
+  }
+
   @PutMapping("/{id}")
   @PreAuthorize("hasRole('ADMIN')")
   @Operation(
@@ -3,6 +3,7 @@ package com.clinica.mentalhealth.web;
 import com.clinica.mentalhealth.domain.Psychologist;
 import com.clinica.mentalhealth.service.PsychologistService;
 import com.clinica.mentalhealth.web.dto.CreatePsychologistDto;
+import com.clinica.mentalhealth.web.dto.CursorPage;
 import com.clinica.mentalhealth.web.dto.UpdatePsychologistDto;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -35,6 +36,41 @@ public class PsychologistController {
     return psychologistService.findAll();
   }
 
+  @GetMapping("/page")
+  @PreAuthorize("hasRole('ADMIN')")
+  @Operation(
+    summary = "Listar psicólogos (paginado)",
+    description = "Paginación por cursor, ordenada por 'id' o 'name'. Para la página siguiente enviar el 'nextCursor' recibido."
+  )
+  @ApiResponse(responseCode = "200", description = "Página de psicólogos")
+  @ApiResponse(responseCode = "400", description = "Cursor, orden o tamaño de página inválido")
+  @ApiResponse(responseCode = "403", description = "Acceso denegado")
+  public Mono<CursorPage<Psychologist>> getPage(
+    @Parameter(description = "Orden: 'id' (por defecto) o 'name'") @RequestParam(required = false) String sort,
+    @Parameter(description = "Token 'nextCursor' de la página anterior (omitir para la primera)") @RequestParam(required = false) String cursor,
+    @Parameter(description = "Tamaño de página (1-100, por defecto 20)") @RequestParam(required = false) Integer size,
+    @Parameter(description = "Incluir total aproximado") @RequestParam(defaultValue = "false") boolean includeTotal
+  ) {
+    return psychologistService.findPage(sort, cursor, size, includeTotal);
+  }
+
+  @GetMapping("/search")
+  @PreAuthorize("hasAnyRole('ADMIN', 'PSYCHOLOGIST')")
+  @Operation(
+    summary = "Buscar psicólogos",
+    description = "Por nombre (tolera errores de tipeo) y/o especialidad (exacta). Se requiere al menos un filtro."
+  )
+  @ApiResponse(responseCode = "200", description = "Psicólogos encontrados, del más al menos parecido por nombre")
+  @ApiResponse(responseCode = "400", description = "Sin filtros o límite inválido")
+  @ApiResponse(responseCode = "403", description = "Acceso denegado")
+  public Flux<Psychologist> search(
+    @Parameter(description = "Nombre o parte del nombre", example = "Ana") @RequestParam(required = false) String name,
+    @Parameter(description = "Especialidad exacta", example = "Psicología Infantil") @RequestParam(required = false) String specialty,
+    @Parameter(description = "Máximo de resultados (1-50, por defecto 10)") @RequestParam(required = false) Integer limit
+  ) {
+    return psychologistService.search(name, specialty, limit);
+  }
+
   @GetMapping("/{id}")
   @PreAuthorize("hasRole('ADMIN')")
   @Operation(summary = "Obtener psicólogo por ID", description = "Ver detalle de un psicólogo")
@@ -2,7 +2,9 @@ package com.clinica.mentalhealth.web;
 
 import com.clinica.mentalhealth.domain.Room;
 import com.clinica.mentalhealth.service.RoomService;
+import com.clinica.mentalhealth.web.dto.CursorPage;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
@@ -29,6 +31,16 @@ public class RoomController {
         return roomService.findAll();
     }
 
+    @GetMapping("/page")
+    @PreAuthorize("hasAnyRole('ADMIN', 'PSYCHOLOGIST')")
+    @Operation(summary = "Listar salas (paginado)", description = "Salas ordenadas por ID con paginación por cursor")
+    public Mono<CursorPage<Room>> getPage(
+            @Parameter(description = "Token 'nextCursor' de la página anterior (omitir para la primera)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamaño de página (1-100, por defecto 20)") @RequestParam(required = false) Integer size,
+            @Parameter(description = "Incluir total aproximado") @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return roomService.findPage(cursor, size, includeTotal);
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'PSYCHOLOGIST')")
     @Operation(summary = "Obtener sala por ID", description = "Busca una sala específica por su identificador")
@@ -0,0 +1,45 @@
+package com.clinica.mentalhealth.web;
+
+import com.clinica.mentalhealth.service.TypeaheadService;
+import com.clinica.mentalhealth.web.dto.NameSuggestion;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/typeahead")
+@RequiredArgsConstructor
+@Tag(name = "Autocompletado", description = "Sugerencias de nombres mientras se escribe")
+@SecurityRequirement(name = "Bearer Authentication")
+public class TypeaheadController {
+
+    private final TypeaheadService typeaheadService;
+
+    @GetMapping
+    @PreAuthorize("hasAnyRole('ADMIN', 'PSYCHOLOGIST')")
+    @Operation(
+            summary = "Autocompletar nombres",
+            description = "Pacientes o psicólogos con alguna palabra del nombre que empieza por 'q' (sin distinguir "
+                    + "mayúsculas ni tildes). Se responde desde memoria; si no hay coincidencias se usa la búsqueda "
+                    + "fuzzy de pacientes para tolerar errores de tipeo.")
+    @ApiResponse(responseCode = "200", description = "Sugerencias (id y nombre)")
+    @ApiResponse(responseCode = "400", description = "Tipo o límite inválido")
+    @ApiResponse(responseCode = "403", description = "Acceso denegado")
+    public Mono<List<NameSuggestion>> suggest(
+            @Parameter(description = "Texto escrito hasta ahora", example = "gonz") @RequestParam String q,
+            @Parameter(description = "'patient' (por defecto) o 'psychologist'") @RequestParam(required = false) String type,
+            @Parameter(description = "Máximo de sugerencias (1-20, por defecto 10)") @RequestParam(required = false) Integer limit) {
+        return typeaheadService.suggest(type, q, limit);
+    }
+}
@@ -0,0 +1,34 @@
+package com.clinica.mentalhealth.web.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Resultado de agendar una serie: un reporte por cada sesión, para que los
+ * conflictos parciales no obliguen al cliente a reintentar sesión por sesión.
+ */
+@Schema(description = "Reporte de una serie de citas recurrentes")
+public record AppointmentSeriesReport(
+        int requested,
+        int booked,
+        List<Occurrence> occurrences) {
+
+    public enum Status {
+        BOOKED,
+        CONFLICT,
+        INVALID
+    }
+
+    @Schema(description = "Resultado de una sesión de la serie")
+    public record Occurrence(
+            int index, // Posición en la serie (0 = primera sesión)
+            LocalDateTime startTime,
+            LocalDateTime endTime,
+            Status status,
+            Long appointmentId, // Solo si status = BOOKED
+            String message // Motivo si status != BOOKED
+    ) {
+    }
+}
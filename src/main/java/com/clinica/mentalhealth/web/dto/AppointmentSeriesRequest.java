@@ -0,0 +1,28 @@
+package com.clinica.mentalhealth.web.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Schema(description = "Datos para agendar una serie de citas recurrentes (ej: terapia semanal)")
+public record AppointmentSeriesRequest(
+        @Schema(description = "ID del paciente", example = "4") @NotNull(message = "El paciente es requerido") Long patientId,
+
+        @Schema(description = "ID del psicólogo", example = "2") @NotNull(message = "El psicólogo es requerido") Long psychologistId,
+
+        @Schema(description = "ID de la sala (opcional: si se omite se asigna automáticamente)", example = "1") Long roomId,
+
+        @Schema(description = "Inicio de la primera sesión (ISO 8601)", example = "2025-12-01T10:00:00") @NotNull(message = "La fecha de inicio es requerida") LocalDateTime startTime,
+
+        @Schema(description = "Duración de cada sesión en minutos (por defecto 60)", example = "60") @Min(value = 15, message = "La duración mínima es 15 minutos") @Max(value = 240, message = "La duración máxima es 240 minutos") Integer durationMinutes,
+
+        @Schema(description = "Semanas entre sesiones (1 = semanal, 2 = quincenal)", example = "1") @Min(value = 1, message = "El intervalo mínimo es 1 semana") @Max(value = 4, message = "El intervalo máximo es 4 semanas") Integer intervalWeeks,
+
+        @Schema(description = "Número de sesiones (opcional si se indica 'until')", example = "12") @Min(value = 1, message = "Debe haber al menos una sesión") @Max(value = 52, message = "Máximo 52 sesiones por serie") Integer occurrences,
+
+        @Schema(description = "Fecha límite inclusive (opcional si se indica 'occurrences')", example = "2026-03-01") LocalDate until) {
+}
@@ -0,0 +1,24 @@
+package com.clinica.mentalhealth.web.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Disponibilidad de varios psicólogos en un rango de días.
+ * Cada día es un bitset: el bit i indica que el slot {@code slots[i]} está libre.
+ */
+@Schema(description = "Matriz de disponibilidad (un bitset de slots libres por día)")
+public record AvailabilityMatrix(
+        LocalDate from,
+        LocalDate to,
+        @Schema(description = "Etiqueta de cada bit (bit 0 = primer slot)", example = "[\"08:00\", \"09:00\"]") List<String> slots,
+        List<Row> psychologists) {
+
+    @Schema(description = "Disponibilidad de un psicólogo")
+    public record Row(
+            Long psychologistId,
+            @Schema(description = "Un bitset por día, desde 'from' hasta 'to' inclusive", example = "[16383, 0]") List<Long> days) {
+    }
+}
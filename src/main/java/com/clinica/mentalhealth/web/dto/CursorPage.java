@@ -0,0 +1,12 @@
+package com.clinica.mentalhealth.web.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Página de resultados con paginación por cursor (keyset)")
+public record CursorPage<T>(
+        List<T> items,
+        @Schema(description = "Token para pedir la página siguiente (null si es la última)") String nextCursor,
+        @Schema(description = "Total aproximado de filas según las estadísticas de PostgreSQL (solo si se pidió)") Long approximateTotal) {
+}
@@ -0,0 +1,9 @@
+package com.clinica.mentalhealth.web.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Sugerencia de autocompletado: ID y nombre de un paciente o psicólogo")
+public record NameSuggestion(
+        @Schema(example = "12") Long id,
+        @Schema(example = "Luis González Prado") String name) {
+}
@@ -0,0 +1,33 @@
+package com.clinica.mentalhealth.web.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Resultado de importar una fila del archivo de pacientes")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record PatientImportResult(
+        @Schema(description = "Número de línea en el archivo (la cabecera CSV es la línea 1)", example = "2") long line,
+        Status status,
+        @Schema(description = "ID asignado (solo si se creó)", example = "57") Long id,
+        @Schema(example = "12345678") String dni,
+        @Schema(description = "Motivo si no se creó") String message) {
+
+    public enum Status {
+        /** Paciente creado. */
+        CREATED,
+        /** El DNI o el email ya existen en la BD o se repiten en el archivo. */
+        DUPLICATE,
+        /** Fila mal formada o con datos inválidos. */
+        INVALID,
+        /** Error al insertar el lote al que pertenece la fila (se revirtió completo). */
+        FAILED
+    }
+
+    public static PatientImportResult created(long line, Long id, String dni) {
+        return new PatientImportResult(line, Status.CREATED, id, dni, null);
+    }
+
+    public static PatientImportResult rejected(long line, Status status, String dni, String message) {
+        return new PatientImportResult(line, status, null, dni, message);
+    }
+}
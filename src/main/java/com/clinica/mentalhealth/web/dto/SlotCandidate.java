@@ -0,0 +1,12 @@
+package com.clinica.mentalhealth.web.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+@Schema(description = "Horario en el que psicólogo, paciente y una sala están libres a la vez")
+public record SlotCandidate(
+        LocalDateTime startTime,
+        LocalDateTime endTime,
+        @Schema(description = "Sala sugerida: la que asignaría la reserva sin sala (best-fit por capacidad)", example = "1") Long roomId) {
+}
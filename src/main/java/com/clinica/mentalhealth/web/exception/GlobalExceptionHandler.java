@@ -1,6 +1,7 @@
 package com.clinica.mentalhealth.web.exception;
 
 import com.clinica.mentalhealth.web.dto.ErrorResponse;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -54,7 +55,16 @@ public class GlobalExceptionHandler {
         return buildResponse(HttpStatus.UNAUTHORIZED, "Usuario o contraseña incorrectos.", exchange);
     }
 
-    // 6. Error 500: Cualquier otra cosa que no esperábamos
+    // 6. Error 503: Recurso saturado (Ej: cola de hashing de contraseñas llena)
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<ErrorResponse> handleBusy(ServiceBusyException ex, ServerWebExchange exchange) {
+        ResponseEntity<ErrorResponse> response = buildResponse(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage(), exchange);
+        return ResponseEntity.status(response.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())))
+                .body(response.getBody());
+    }
+
+    // 7. Error 500: Cualquier otra cosa que no esperábamos
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGeneral(Exception ex, ServerWebExchange exchange) {
         ex.printStackTrace();
@@ -0,0 +1,26 @@
+package com.clinica.mentalhealth.web.exception;
+
+import java.time.Duration;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Excepción para recursos saturados (503 Service Unavailable).
+ * Se lanza cuando el servidor rechaza trabajo para proteger al resto de la
+ * API (ej: cola de hashing de contraseñas llena). El cliente puede
+ * reintentar pasado {@code retryAfter}.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ServiceBusyException extends RuntimeException {
+
+  private final Duration retryAfter;
+
+  public ServiceBusyException(String message, Duration retryAfter) {
+    super(message);
+    this.retryAfter = retryAfter;
+  }
+
+  public Duration getRetryAfter() {
+    return retryAfter;
+  }
+}
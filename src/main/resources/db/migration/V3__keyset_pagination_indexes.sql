@@ -0,0 +1,21 @@
+-- ============================================
+-- V3__keyset_pagination_indexes.sql
+-- Índices para paginación keyset (WHERE (key, id) > (...) ORDER BY key, id)
+-- ============================================
+
+-- Citas: orden cronológico global y por rol
+CREATE INDEX IF NOT EXISTS idx_appointments_keyset
+    ON "appointments" (start_time, id);
+
+CREATE INDEX IF NOT EXISTS idx_appointments_psychologist_keyset
+    ON "appointments" (psychologist_id, start_time, id);
+
+CREATE INDEX IF NOT EXISTS idx_appointments_patient_keyset
+    ON "appointments" (patient_id, start_time, id);
+
+-- Personas: orden alfabético (el orden por id usa la PK)
+CREATE INDEX IF NOT EXISTS idx_patients_name_keyset
+    ON "patients" (name, id);
+
+CREATE INDEX IF NOT EXISTS idx_psychologists_name_keyset
+    ON "psychologists" (name, id);
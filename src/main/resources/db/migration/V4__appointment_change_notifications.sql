@@ -0,0 +1,52 @@
+-- ============================================
+-- V4__appointment_change_notifications.sql
+-- Publica cada alta, cancelación o cambio de horario de una cita en el
+-- canal 'appointment_events' (LISTEN/NOTIFY). Alimenta el stream SSE de
+-- citas y mantiene sincronizado el índice en memoria de cada instancia.
+-- ============================================
+
+CREATE OR REPLACE FUNCTION notify_appointment_change()
+RETURNS TRIGGER AS $$
+DECLARE
+    event_type TEXT;
+    row_data "appointments";
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        event_type := 'CREATED';
+        row_data := NEW;
+    ELSIF TG_OP = 'DELETE' THEN
+        event_type := 'CANCELLED';
+        row_data := OLD;
+    ELSE
+        -- Solo interesan los cambios que mueven la cita en la agenda
+        IF NEW.start_time IS NOT DISTINCT FROM OLD.start_time
+           AND NEW.end_time IS NOT DISTINCT FROM OLD.end_time
+           AND NEW.room_id IS NOT DISTINCT FROM OLD.room_id
+           AND NEW.psychologist_id IS NOT DISTINCT FROM OLD.psychologist_id
+           AND NEW.patient_id IS NOT DISTINCT FROM OLD.patient_id THEN
+            RETURN NULL;
+        END IF;
+        event_type := 'RESCHEDULED';
+        row_data := NEW;
+    END IF;
+
+    -- Payload liviano (límite de NOTIFY: 8000 bytes)
+    PERFORM pg_notify('appointment_events', json_build_object(
+        'type', event_type,
+        'appointment', json_build_object(
+            'id', row_data.id,
+            'startTime', row_data.start_time,
+            'endTime', row_data.end_time,
+            'patientId', row_data.patient_id,
+            'psychologistId', row_data.psychologist_id,
+            'roomId', row_data.room_id
+        )
+    )::text);
+    RETURN NULL;
+END;
+$$ language 'plpgsql';
+
+CREATE TRIGGER notify_appointments_change
+    AFTER INSERT OR UPDATE OR DELETE ON "appointments"
+    FOR EACH ROW
+    EXECUTE FUNCTION notify_appointment_change();
@@ -0,0 +1,38 @@
+-- ============================================
+-- V5__cache_version_stamps.sql
+-- Sello de versión por región de caché. Cada sentencia que modifica una
+-- tabla cacheada avanza la secuencia cache_version_<región>. El snapshot
+-- de caché guarda estos valores al apagar la aplicación y, al arrancar,
+-- solo restaura las regiones cuyo sello no cambió.
+--
+-- Se usan secuencias (no una tabla de contadores) porque nextval no toma
+-- locks de fila: escrituras concurrentes no se serializan por el sello.
+-- Un rollback también avanza la secuencia; eso solo descarta el snapshot.
+-- ============================================
+
+CREATE SEQUENCE IF NOT EXISTS cache_version_psychologist;
+CREATE SEQUENCE IF NOT EXISTS cache_version_room;
+CREATE SEQUENCE IF NOT EXISTS cache_version_patient;
+
+CREATE OR REPLACE FUNCTION bump_cache_version()
+RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM nextval(TG_ARGV[0]);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_psychologists_cache_version ON "psychologists";
+CREATE TRIGGER trg_psychologists_cache_version
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON "psychologists"
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_cache_version('cache_version_psychologist');
+
+DROP TRIGGER IF EXISTS trg_rooms_cache_version ON "rooms";
+CREATE TRIGGER trg_rooms_cache_version
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON "rooms"
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_cache_version('cache_version_room');
+
+DROP TRIGGER IF EXISTS trg_patients_cache_version ON "patients";
+CREATE TRIGGER trg_patients_cache_version
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON "patients"
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_cache_version('cache_version_patient');
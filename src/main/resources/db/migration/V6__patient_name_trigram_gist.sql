@@ -0,0 +1,14 @@
+-- ============================================
+-- V6__patient_name_trigram_gist.sql
+-- Búsqueda fuzzy de pacientes con índice: la consulta filtra con el
+-- operador % y ordena por distancia (<->). GiST soporta ambos, incluido el
+-- recorrido KNN (filas ya ordenadas por distancia, cortadas por el LIMIT);
+-- GIN solo soporta el filtro. Reemplaza al índice GIN de V1 para no
+-- mantener dos índices trigram sobre la misma expresión.
+-- ============================================
+
+CREATE INDEX IF NOT EXISTS trgm_gist_idx_patients_name
+    ON "patients"
+    USING GIST (LOWER(name) gist_trgm_ops);
+
+DROP INDEX IF EXISTS trgm_idx_patients_name;
@@ -0,0 +1,43 @@
+-- ============================================
+-- V7__name_change_notifications.sql
+-- Publica cada alta, renombre o baja de pacientes y psicólogos en el canal
+-- 'name_changes' (LISTEN/NOTIFY). Mantiene sincronizado el índice de
+-- autocompletado de cada instancia sin esperar a la resincronización.
+-- ============================================
+
+CREATE OR REPLACE FUNCTION notify_name_change()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        PERFORM pg_notify('name_changes', json_build_object(
+            'kind', TG_ARGV[0],
+            'type', 'DELETED',
+            'id', OLD.id
+        )::text);
+    ELSE
+        IF TG_OP = 'UPDATE' AND NEW.name IS NOT DISTINCT FROM OLD.name THEN
+            RETURN NULL;
+        END IF;
+        -- Payload liviano (límite de NOTIFY: 8000 bytes; name es VARCHAR(255))
+        PERFORM pg_notify('name_changes', json_build_object(
+            'kind', TG_ARGV[0],
+            'type', 'UPSERTED',
+            'id', NEW.id,
+            'name', NEW.name
+        )::text);
+    END IF;
+    RETURN NULL;
+END;
+$$ language 'plpgsql';
+
+DROP TRIGGER IF EXISTS notify_patients_name_change ON "patients";
+CREATE TRIGGER notify_patients_name_change
+    AFTER INSERT OR UPDATE OF name OR DELETE ON "patients"
+    FOR EACH ROW
+    EXECUTE FUNCTION notify_name_change('PATIENT');
+
+DROP TRIGGER IF EXISTS notify_psychologists_name_change ON "psychologists";
+CREATE TRIGGER notify_psychologists_name_change
+    AFTER INSERT OR UPDATE OF name OR DELETE ON "psychologists"
+    FOR EACH ROW
+    EXECUTE FUNCTION notify_name_change('PSYCHOLOGIST');
@@ -0,0 +1,66 @@
+package com.clinica.mentalhealth.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/**
+ * Unit tests para CacheInvalidationBus.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CacheInvalidationBus Tests")
+class CacheInvalidationBusTest {
+
+  @Mock
+  private PostgresNotifications notifications;
+
+  @InjectMocks
+  private CacheInvalidationBus bus;
+
+  @Test
+  @DisplayName("Un lote de claves debe publicarse en bloques bajo el límite de NOTIFY")
+  void publishKeysShouldSplitIntoBoundedPayloads() {
+    when(notifications.publish(eq(CacheInvalidationBus.CHANNEL), anyString())).thenReturn(Mono.empty());
+    // 1000 claves de ~20 bytes: no caben en una sola notificación
+    List<String> keys = IntStream.range(0, 1000).mapToObj(i -> "patient:dni:" + (90000000 + i)).toList();
+
+    StepVerifier.create(bus.publishKeys(keys)).verifyComplete();
+
+    ArgumentCaptor<String> payloads = ArgumentCaptor.forClass(String.class);
+    verify(notifications, atLeast(2)).publish(eq(CacheInvalidationBus.CHANNEL), payloads.capture());
+    assertThat(payloads.getAllValues())
+      .allSatisfy(payload -> assertThat(payload.getBytes(StandardCharsets.UTF_8).length).isLessThan(8000));
+    assertThat(payloads.getAllValues().stream()
+      .map(payload -> new CacheInvalidationBus.Invalidation(CacheInvalidationBus.Type.KEYS, payload.split("\\|", 3)[2]))
+      .flatMap(invalidation -> CacheInvalidationBus.keysOf(invalidation).stream()))
+      .containsExactlyElementsOf(keys);
+  }
+
+  @Test
+  @DisplayName("Una sola clave debe publicarse como KEY")
+  void singleKeyShouldUseKeyType() {
+    when(notifications.publish(eq(CacheInvalidationBus.CHANNEL), anyString())).thenReturn(Mono.empty());
+
+    StepVerifier.create(bus.publishKeys(List.of("patient:1"))).verifyComplete();
+
+    ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+    verify(notifications).publish(eq(CacheInvalidationBus.CHANNEL), payload.capture());
+    assertThat(payload.getValue()).endsWith("|KEY|patient:1");
+  }
+}
@@ -0,0 +1,157 @@
+package com.clinica.mentalhealth.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+
+import com.clinica.mentalhealth.domain.Patient;
+import com.clinica.mentalhealth.domain.Room;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/**
+ * Unit tests para CacheSnapshot.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CacheSnapshot Tests")
+class CacheSnapshotTest {
+
+  @Mock
+  private CacheInvalidationBus invalidationBus;
+
+  @TempDir
+  Path tempDir;
+
+  private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+  @BeforeEach
+  void setUp() {
+    lenient().when(invalidationBus.publish(any(), any())).thenReturn(Mono.empty());
+  }
+
+  private ReactiveCache newCache() {
+    return new ReactiveCache(invalidationBus, new ReactiveCacheProperties(null, null), new SimpleMeterRegistry());
+  }
+
+  private CacheSnapshot snapshotOf(ReactiveCache cache) {
+    return new CacheSnapshot(cache, null, objectMapper);
+  }
+
+  @Test
+  @DisplayName("Debe restaurar las regiones cuyo sello de versión no cambió")
+  void shouldRestoreUnchangedRegions() throws IOException {
+    ReactiveCache before = newCache();
+    CacheSnapshot writer = snapshotOf(before);
+    writer.stamp(Map.of("room", 7L, "psychologist", 3L), before.now());
+    before.cacheMono("room:all", () -> Mono.just(List.of(new Room(1L, "Sala A"), new Room(2L, "Sala B")))).block();
+    before.cacheMono("room:1", () -> Mono.just(new Room(1L, "Sala A"))).block();
+    before.cacheMono("psychologist:all", () -> Mono.just(List.of())).block();
+    Path file = tempDir.resolve("cache.snapshot");
+    writer.write(file, writer.capture(Map.of("room", 7L, "psychologist", 3L)));
+
+    ReactiveCache after = newCache();
+    CacheSnapshot.Snapshot snapshot = snapshotOf(after).read(file);
+    int restored = snapshotOf(after).restore(snapshot, Map.of("room", 7L, "psychologist", 4L));
+
+    assertThat(restored).isEqualTo(2);
+    StepVerifier.create(after.cacheMono("room:all", () -> Mono.just(List.of())))
+      .expectNext(List.of(new Room(1L, "Sala A"), new Room(2L, "Sala B")))
+      .verifyComplete();
+    StepVerifier.create(after.cacheMono("room:1", () -> Mono.<Room>empty()))
+      .expectNext(new Room(1L, "Sala A"))
+      .verifyComplete();
+    // La región de psicólogos cambió mientras la aplicación estaba abajo
+    StepVerifier.create(after.cacheMono("psychologist:all", () -> Mono.just(List.of("desde BD"))))
+      .expectNext(List.of("desde BD"))
+      .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("Solo debe guardar entradas cargadas desde el sello y regiones cuya versión no cambió")
+  void shouldCaptureOnlyEntriesLoadedUnderCurrentStamp() {
+    ReactiveCache cache = newCache();
+    CacheSnapshot snapshot = snapshotOf(cache);
+    // Cargada antes de conocer la versión: pudo perder una invalidación
+    cache.cacheMono("room:1", () -> Mono.just(new Room(1L, "Sala vieja"))).block();
+    snapshot.stamp(Map.of("room", 7L, "psychologist", 3L), cache.now());
+    cache.cacheMono("room:2", () -> Mono.just(new Room(2L, "Sala B"))).block();
+    cache.cacheMono("psychologist:all", () -> Mono.just(List.of())).block();
+    // Misma versión en un sello posterior: se conserva el sello original
+    snapshot.stamp(Map.of("room", 7L), cache.now());
+
+    // La tabla de psicólogos cambió después del sello (notificación perdida)
+    CacheSnapshot.Snapshot captured = snapshot.capture(Map.of("room", 7L, "psychologist", 4L));
+
+    assertThat(captured.regions()).singleElement().satisfies(region -> {
+      assertThat(region.region()).isEqualTo("room");
+      assertThat(region.entries()).extracting(CacheSnapshot.SnapshotEntry::key).containsExactly("room:2");
+    });
+  }
+
+  @Test
+  @DisplayName("No debe instanciar tipos fuera del paquete domain")
+  void shouldRejectTypesOutsideDomain() {
+    CacheSnapshot.Snapshot snapshot = new CacheSnapshot.Snapshot(Instant.now(), List.of(
+      new CacheSnapshot.RegionSnapshot("room", 1L, List.of(
+        new CacheSnapshot.SnapshotEntry("room:1", "java.lang.ProcessBuilder", null,
+          JsonNodeFactory.instance.objectNode())))));
+    ReactiveCache cache = newCache();
+
+    assertThat(snapshotOf(cache).restore(snapshot, Map.of("room", 1L))).isZero();
+  }
+
+  @Test
+  @DisplayName("Las regiones fuera de cache.snapshot.regions (datos personales) no deben llegar a disco")
+  void shouldNotCaptureRegionsOutsideAllowlist() {
+    ReactiveCache cache = newCache();
+    CacheSnapshot snapshot = snapshotOf(cache);
+    snapshot.stamp(Map.of("room", 7L, "patient", 2L), cache.now());
+    cache.cacheMono("room:1", () -> Mono.just(new Room(1L, "Sala A"))).block();
+    cache.cacheMono("patient:1", () -> Mono.just(
+        new Patient(1L, "Ana", "ana@test.com", "600000000", "12345678A"))).block();
+
+    CacheSnapshot.Snapshot captured = snapshot.capture(Map.of("room", 7L, "patient", 2L));
+
+    assertThat(captured.regions()).extracting(CacheSnapshot.RegionSnapshot::region).containsExactly("room");
+  }
+
+  @Test
+  @DisplayName("El snapshot debe escribirse legible solo por el dueño")
+  void shouldWriteOwnerOnlyFile() throws IOException {
+    assumeTrue(tempDir.getFileSystem().supportedFileAttributeViews().contains("posix"));
+    Path file = tempDir.resolve("privado/cache.snapshot");
+
+    snapshotOf(newCache()).write(file, new CacheSnapshot.Snapshot(Instant.now(), List.of()));
+
+    assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(file))).isEqualTo("rw-------");
+    assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(file.getParent()))).isEqualTo("rwx------");
+  }
+
+  @Test
+  @DisplayName("Un archivo con formato desconocido debe rechazarse")
+  void shouldRejectUnknownFormat() throws IOException {
+    Path file = tempDir.resolve("cache.snapshot");
+    Files.writeString(file, "{\"createdAt\": 0, \"regions\": []}");
+
+    assertThatThrownBy(() -> snapshotOf(newCache()).read(file)).isInstanceOf(IOException.class);
+  }
+}
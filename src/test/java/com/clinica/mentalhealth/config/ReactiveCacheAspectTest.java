@@ -0,0 +1,133 @@
+package com.clinica.mentalhealth.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/**
+ * Unit tests para ReactiveCacheAspect.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ReactiveCacheAspect Tests")
+class ReactiveCacheAspectTest {
+
+  @Mock
+  private CacheInvalidationBus invalidationBus;
+
+  private Catalog catalog;
+
+  static class Catalog {
+
+    private final AtomicInteger queries = new AtomicInteger();
+
+    public int queries() {
+      return queries.get();
+    }
+
+    @ReactiveCacheable(key = "'room:' + #id")
+    public Mono<String> findById(Long id) {
+      return Mono.fromCallable(() -> "sala-" + id + "-v" + queries.incrementAndGet());
+    }
+
+    @ReactiveCacheable(key = "'room:all'")
+    public Flux<String> findAll() {
+      queries.incrementAndGet();
+      return Flux.just("a", "b");
+    }
+
+    @ReactiveCacheable(key = "'room:missing:' + #id", cacheMisses = true)
+    public Mono<String> findExisting(Long id) {
+      queries.incrementAndGet();
+      return Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Sala no encontrada: " + id));
+    }
+
+    @ReactiveCacheable(key = "'room:name:' + #name", condition = "#name.length() > 2")
+    public Flux<String> search(String name) {
+      queries.incrementAndGet();
+      return Flux.just(name);
+    }
+
+    @ReactiveCacheEvict(prefix = "room:")
+    public Mono<String> rename(boolean fail) {
+      return fail ? Mono.error(new IllegalArgumentException("nombre inválido")) : Mono.just("ok");
+    }
+  }
+
+  @BeforeEach
+  void setUp() {
+    lenient().when(invalidationBus.publish(any(), any())).thenReturn(Mono.empty());
+    ReactiveCache reactiveCache = new ReactiveCache(invalidationBus, new ReactiveCacheProperties(null, null),
+      new SimpleMeterRegistry());
+    AspectJProxyFactory factory = new AspectJProxyFactory(new Catalog());
+    factory.setProxyTargetClass(true);
+    factory.addAspect(new ReactiveCacheAspect(reactiveCache));
+    catalog = factory.getProxy();
+  }
+
+  @Test
+  @DisplayName("Un Mono anotado debe cachearse por la clave SpEL")
+  void monoShouldBeCachedByKey() {
+    StepVerifier.create(catalog.findById(1L)).expectNext("sala-1-v1").verifyComplete();
+    StepVerifier.create(catalog.findById(1L)).expectNext("sala-1-v1").verifyComplete();
+    StepVerifier.create(catalog.findById(2L)).expectNext("sala-2-v2").verifyComplete();
+  }
+
+  @Test
+  @DisplayName("Un Flux anotado debe cachearse como lista y reemitirse")
+  void fluxShouldBeCachedAsList() {
+    StepVerifier.create(catalog.findAll()).expectNext("a", "b").verifyComplete();
+    StepVerifier.create(catalog.findAll()).expectNext("a", "b").verifyComplete();
+
+    assertThat(catalog.queries()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("La evicción debe ocurrir solo si el método termina con éxito")
+  void evictShouldRunOnlyOnSuccess() {
+    StepVerifier.create(catalog.findById(1L)).expectNext("sala-1-v1").verifyComplete();
+
+    StepVerifier.create(catalog.rename(true)).expectError(IllegalArgumentException.class).verify();
+    StepVerifier.create(catalog.findById(1L)).expectNext("sala-1-v1").verifyComplete();
+
+    StepVerifier.create(catalog.rename(false)).expectNext("ok").verifyComplete();
+    StepVerifier.create(catalog.findById(1L)).expectNext("sala-1-v2").verifyComplete();
+  }
+
+  @Test
+  @DisplayName("Con cacheMisses un 404 debe cachearse y reproducirse con el mismo mensaje")
+  void notFoundShouldBeCachedAndReplayed() {
+    for (int i = 0; i < 2; i++) {
+      StepVerifier.create(catalog.findExisting(7L))
+        .expectErrorSatisfies(error -> assertThat(error)
+          .isInstanceOf(ResponseStatusException.class)
+          .hasMessageContaining("Sala no encontrada: 7"))
+        .verify();
+    }
+
+    assertThat(catalog.queries()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Si la condición es falsa no debe usarse el caché")
+  void falseConditionShouldBypassCache() {
+    StepVerifier.create(catalog.search("ab")).expectNext("ab").verifyComplete();
+    StepVerifier.create(catalog.search("ab")).expectNext("ab").verifyComplete();
+
+    assertThat(catalog.queries()).isEqualTo(2);
+  }
+}
@@ -0,0 +1,266 @@
+package com.clinica.mentalhealth.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+/**
+ * Unit tests para ReactiveCache.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ReactiveCache Tests")
+class ReactiveCacheTest {
+
+  @Mock
+  private CacheInvalidationBus invalidationBus;
+
+  private ReactiveCache cache;
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final AtomicInteger loads = new AtomicInteger();
+  private final AtomicLong nanos = new AtomicLong();
+
+  private void advance(Duration duration) {
+    nanos.addAndGet(duration.toNanos());
+  }
+
+  @BeforeEach
+  void setUp() {
+    lenient().when(invalidationBus.publish(any(), any())).thenReturn(Mono.empty());
+    lenient().when(invalidationBus.publishKeys(any())).thenReturn(Mono.empty());
+    ReactiveCacheProperties properties = new ReactiveCacheProperties(
+      new ReactiveCacheProperties.Policy(Duration.ofMinutes(5), Duration.ofMinutes(30), 500L, Duration.ofSeconds(30)),
+      Map.of("patient", new ReactiveCacheProperties.Policy(null, null, 3L, null)));
+    cache = new ReactiveCache(invalidationBus, properties, meterRegistry, nanos::get, Runnable::run);
+  }
+
+  private Mono<String> load(String key) {
+    return cache.cacheMono(key, () -> Mono.fromCallable(() -> "v" + loads.incrementAndGet()));
+  }
+
+  @Test
+  @DisplayName("Un hit no debe volver a ejecutar el supplier")
+  void hitShouldNotReload() {
+    StepVerifier.create(load("room:1")).expectNext("v1").verifyComplete();
+    StepVerifier.create(load("room:1")).expectNext("v1").verifyComplete();
+  }
+
+  @Test
+  @DisplayName("Misses concurrentes deben compartir una sola carga")
+  void concurrentMissesShouldCoalesce() {
+    Sinks.One<String> database = Sinks.one();
+    AtomicInteger queries = new AtomicInteger();
+    Supplier<Mono<String>> supplier = () -> {
+      queries.incrementAndGet();
+      return database.asMono();
+    };
+
+    Mono<String> first = cache.cacheMono("psychologists:all", supplier);
+    Mono<String> second = cache.cacheMono("psychologists:all", supplier);
+
+    StepVerifier.create(Mono.zip(first, second))
+      .then(() -> database.tryEmitValue("lista"))
+      .assertNext(pair -> assertThat(pair.getT1()).isEqualTo(pair.getT2()))
+      .verifyComplete();
+    assertThat(queries).hasValue(1);
+  }
+
+  @Test
+  @DisplayName("Un resultado vacío no debe quedar en caché")
+  void emptyResultShouldNotBeCached() {
+    StepVerifier.create(cache.cacheMono("room:9", Mono::<String>empty)).verifyComplete();
+
+    StepVerifier.create(load("room:9")).expectNext("v1").verifyComplete();
+  }
+
+  @Test
+  @DisplayName("evictByPrefix debe invalidar localmente y difundir al resto de nodos")
+  void evictByPrefixShouldPublish() {
+    StepVerifier.create(load("room:1")).expectNext("v1").verifyComplete();
+
+    StepVerifier.create(cache.evictByPrefix("room:")).verifyComplete();
+
+    verify(invalidationBus).publish(CacheInvalidationBus.Type.PREFIX, "room:");
+    StepVerifier.create(load("room:1")).expectNext("v2").verifyComplete();
+  }
+
+  @Test
+  @DisplayName("Una invalidación remota debe aplicarse solo localmente")
+  void remoteInvalidationShouldEvictLocally() {
+    StepVerifier.create(load("psychologist:1")).expectNext("v1").verifyComplete();
+    StepVerifier.create(load("room:1")).expectNext("v2").verifyComplete();
+
+    cache.applyRemote(new CacheInvalidationBus.Invalidation(CacheInvalidationBus.Type.KEY, "psychologist:1"));
+
+    StepVerifier.create(load("psychologist:1")).expectNext("v3").verifyComplete();
+    StepVerifier.create(load("room:1")).expectNext("v2").verifyComplete();
+  }
+
+  @Test
+  @DisplayName("Una invalidación remota de una región desconocida no debe crear cachés ni métricas")
+  void remoteInvalidationShouldNotCreateRegions() {
+    StepVerifier.create(load("room:1")).expectNext("v1").verifyComplete();
+
+    cache.applyRemote(new CacheInvalidationBus.Invalidation(CacheInvalidationBus.Type.KEY, "typo:1"));
+    cache.applyRemote(new CacheInvalidationBus.Invalidation(CacheInvalidationBus.Type.KEYS, "nueva:1\nroom:1"));
+    cache.applyRemote(new CacheInvalidationBus.Invalidation(CacheInvalidationBus.Type.PREFIX, "otra:"));
+    cache.applyRemote(new CacheInvalidationBus.Invalidation(CacheInvalidationBus.Type.PREFIX, "otra:abc"));
+
+    assertThat(cache.regions()).extracting(CacheRegion::name).containsExactly("room");
+    assertThat(meterRegistry.find("cache.gets").tag("cache", "typo").meters()).isEmpty();
+    assertThat(meterRegistry.find("cache.invalidations").counters())
+      .allSatisfy(counter -> assertThat(counter.getId().getTag("cache")).isEqualTo("room"));
+    StepVerifier.create(load("room:1")).expectNext("v2").verifyComplete();
+  }
+
+  @Test
+  @DisplayName("Varias claves deben invalidarse con una sola difusión y aplicarse igual en remoto")
+  void multiKeyEvictionShouldPublishOnce() {
+    StepVerifier.create(load("patient:1")).expectNext("v1").verifyComplete();
+    StepVerifier.create(load("patient:dni:123")).expectNext("v2").verifyComplete();
+    StepVerifier.create(load("room:1")).expectNext("v3").verifyComplete();
+
+    StepVerifier.create(cache.evict(List.of("patient:1", "patient:dni:123"))).verifyComplete();
+    verify(invalidationBus).publishKeys(List.of("patient:1", "patient:dni:123"));
+    StepVerifier.create(load("patient:1")).expectNext("v4").verifyComplete();
+
+    cache.applyRemote(new CacheInvalidationBus.Invalidation(CacheInvalidationBus.Type.KEYS, "patient:1\nroom:1"));
+    StepVerifier.create(load("patient:1")).expectNext("v5").verifyComplete();
+    StepVerifier.create(load("room:1")).expectNext("v6").verifyComplete();
+    StepVerifier.create(load("patient:dni:123")).expectNext("v7").verifyComplete();
+  }
+
+  @Test
+  @DisplayName("Pasado el soft TTL debe servir el valor anterior y recargar en segundo plano")
+  void staleEntryShouldBeServedWhileRefreshing() {
+    StepVerifier.create(load("room:all")).expectNext("v1").verifyComplete();
+    advance(Duration.ofMinutes(6));
+
+    // Se sirve el valor viejo sin esperar; la recarga deja v2 para la siguiente petición
+    StepVerifier.create(load("room:all")).expectNext("v1").verifyComplete();
+    StepVerifier.create(load("room:all")).expectNext("v2").verifyComplete();
+  }
+
+  @Test
+  @DisplayName("Si las recargas fallan, la entrada expira al llegar al hard TTL")
+  void failingRefreshShouldExpireAtHardTtl() {
+    StepVerifier.create(load("room:all")).expectNext("v1").verifyComplete();
+    advance(Duration.ofMinutes(6));
+
+    StepVerifier.create(cache.cacheMono("room:all", () -> Mono.<String>error(new IllegalStateException("BD caída"))))
+      .expectNext("v1")
+      .verifyComplete();
+
+    advance(Duration.ofMinutes(25));
+    StepVerifier.create(load("room:all")).expectNext("v2").verifyComplete();
+  }
+
+  @Test
+  @DisplayName("Vaciar una región no debe afectar a las demás")
+  void clearingRegionShouldNotAffectOthers() {
+    StepVerifier.create(load("room:all")).expectNext("v1").verifyComplete();
+    StepVerifier.create(load("psychologist:all")).expectNext("v2").verifyComplete();
+
+    StepVerifier.create(cache.evictByPrefix("room:")).verifyComplete();
+
+    StepVerifier.create(load("room:all")).expectNext("v3").verifyComplete();
+    StepVerifier.create(load("psychologist:all")).expectNext("v2").verifyComplete();
+  }
+
+  @Test
+  @DisplayName("Tras vaciar una región llena, las entradas nuevas deben conservarse")
+  void clearedRegionShouldRetainNewEntries() {
+    // Región "patient" llena (peso 3) con entradas leídas varias veces
+    for (int round = 0; round < 5; round++) {
+      for (int id = 1; id <= 3; id++) {
+        StepVerifier.create(load("patient:" + id)).expectNextCount(1).verifyComplete();
+      }
+    }
+
+    StepVerifier.create(cache.evictByPrefix("patient:")).verifyComplete();
+
+    StepVerifier.create(load("patient:4")).expectNext("v4").verifyComplete();
+    StepVerifier.create(load("patient:5")).expectNext("v5").verifyComplete();
+    StepVerifier.create(load("patient:6")).expectNext("v6").verifyComplete();
+    cache.regionFor("patient:").cleanUp();
+
+    assertThat(cache.regionFor("patient:").estimatedSize()).isEqualTo(3);
+    StepVerifier.create(load("patient:4")).expectNext("v4").verifyComplete();
+    StepVerifier.create(load("patient:5")).expectNext("v5").verifyComplete();
+    StepVerifier.create(load("patient:6")).expectNext("v6").verifyComplete();
+  }
+
+  @Test
+  @DisplayName("Una región llena no debe desalojar entradas de otra región")
+  void fullRegionShouldNotEvictOtherRegions() {
+    StepVerifier.create(load("room:1")).expectNext("v1").verifyComplete();
+
+    // La región "patient" admite un peso de 3: una lista de 10 la desborda
+    StepVerifier.create(cache.cacheMono("patient:all", () -> Mono.just(List.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10))))
+      .expectNextCount(1)
+      .verifyComplete();
+    cache.regionFor("patient:all").cleanUp();
+
+    assertThat(cache.regionFor("patient:all").estimatedSize()).isZero();
+    StepVerifier.create(load("room:1")).expectNext("v1").verifyComplete();
+  }
+
+  @Test
+  @DisplayName("Debe publicar métricas de Caffeine e invalidaciones por región")
+  void shouldPublishMetricsPerRegion() {
+    StepVerifier.create(load("room:1")).expectNext("v1").verifyComplete();
+    StepVerifier.create(load("room:1")).expectNext("v1").verifyComplete();
+
+    cache.applyRemote(new CacheInvalidationBus.Invalidation(CacheInvalidationBus.Type.PREFIX, "room:"));
+
+    assertThat(meterRegistry.get("cache.gets").tags("cache", "room", "result", "hit").functionCounter().count())
+      .isEqualTo(1);
+    assertThat(meterRegistry.get("cache.invalidations")
+      .tags("cache", "room", "scope", "region", "origin", "remote").counter().count())
+      .isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Un resultado vacío negativo debe cachearse solo durante el negative TTL")
+  void negativeResultShouldExpireAtNegativeTtl() {
+    AtomicInteger queries = new AtomicInteger();
+    Supplier<Mono<String>> missing = () -> Mono.<String>empty().doOnSubscribe(s -> queries.incrementAndGet());
+
+    StepVerifier.create(cache.cacheMonoOrEmpty("psychologist:99", missing)).verifyComplete();
+    StepVerifier.create(cache.cacheMonoOrEmpty("psychologist:99", missing)).verifyComplete();
+    assertThat(queries).hasValue(1);
+
+    advance(Duration.ofSeconds(31));
+    StepVerifier.create(cache.cacheMonoOrEmpty("psychologist:99", missing)).verifyComplete();
+    assertThat(queries).hasValue(2);
+  }
+
+  @Test
+  @DisplayName("Sin transacción, evictAfterCommit debe invalidar de inmediato")
+  void evictAfterCommitWithoutTransactionShouldEvictImmediately() {
+    StepVerifier.create(load("patient:1")).expectNext("v1").verifyComplete();
+    StepVerifier.create(load("patient:dni:123")).expectNext("v2").verifyComplete();
+
+    StepVerifier.create(cache.evictAfterCommit(List.of("patient:1"))).verifyComplete();
+
+    StepVerifier.create(load("patient:1")).expectNext("v3").verifyComplete();
+    StepVerifier.create(load("patient:dni:123")).expectNext("v2").verifyComplete();
+  }
+}
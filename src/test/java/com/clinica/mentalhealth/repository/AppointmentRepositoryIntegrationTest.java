@@ -154,6 +154,23 @@ class AppointmentRepositoryIntegrationTest {
         .verifyComplete();
   }
 
+  @Test
+  void findResourceConflicts_ShouldFlagOnlyBusyResources() {
+    // Arrange
+    insertTestData();
+    var start = LocalDateTime.of(2025, 12, 16, 10, 0);
+    var end = LocalDateTime.of(2025, 12, 16, 11, 0);
+    appointmentRepository.save(new Appointment(null, start, end, 1L, 2L, 1L)).block();
+
+    // Act & Assert - Mismo psicólogo, otro paciente y otra sala, media hora después
+    StepVerifier.create(appointmentRepository.findResourceConflicts(
+        2L, 999L, 999L, start.plusMinutes(30), end.plusMinutes(30)))
+        .expectNextMatches(conflicts -> conflicts.psychologistBusy()
+            && !conflicts.patientBusy()
+            && !conflicts.roomBusy())
+        .verifyComplete();
+  }
+
   @Test
   void save_ShouldPersistAppointment() {
     // Arrange - Insertar datos padre necesarios para cumplir con las FKs
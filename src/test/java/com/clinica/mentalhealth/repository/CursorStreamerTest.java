@@ -0,0 +1,75 @@
+package com.clinica.mentalhealth.repository;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.clinica.mentalhealth.domain.Patient;
+import io.r2dbc.spi.Statement;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.r2dbc.convert.R2dbcConverter;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.RowsFetchSpec;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+/**
+ * Unit tests para CursorStreamer.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CursorStreamer Tests")
+class CursorStreamerTest {
+
+  @Mock
+  private DatabaseClient databaseClient;
+
+  @Mock
+  private R2dbcConverter converter;
+
+  @Mock
+  private DatabaseClient.GenericExecuteSpec spec;
+
+  @Mock
+  private RowsFetchSpec<Patient> rows;
+
+  @Mock
+  private Statement statement;
+
+  @InjectMocks
+  private CursorStreamer cursorStreamer;
+
+  @Test
+  @SuppressWarnings("unchecked")
+  @DisplayName("Debe aplicar el fetch size al statement y enlazar los parámetros")
+  void shouldApplyFetchSizeAndBindings() {
+    ReflectionTestUtils.setField(cursorStreamer, "fetchSize", 250);
+    Patient patient = new Patient(1L, "Luis Prado", null, null, "11111111");
+    when(databaseClient.sql(anyString())).thenReturn(spec);
+    when(spec.filter(any(Function.class))).thenReturn(spec);
+    when(spec.bind(anyString(), any())).thenReturn(spec);
+    when(spec.map(any(BiFunction.class))).thenReturn(rows);
+    when(rows.all()).thenReturn(Flux.just(patient));
+
+    StepVerifier.create(cursorStreamer.stream(Patient.class, "SELECT * FROM patients WHERE id > :after",
+        Map.of("after", 0L)))
+      .expectNext(patient)
+      .verifyComplete();
+
+    ArgumentCaptor<Function<Statement, Statement>> filter = ArgumentCaptor.forClass(Function.class);
+    verify(spec).filter(filter.capture());
+    filter.getValue().apply(statement);
+    verify(statement).fetchSize(250);
+    verify(spec).bind("after", 0L);
+  }
+}
@@ -0,0 +1,136 @@
+package com.clinica.mentalhealth.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.clinica.mentalhealth.config.R2dbcSessionConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.test.StepVerifier;
+
+/**
+ * Test de integración para PatientNameSearch.
+ *
+ * Aplica las migraciones de Flyway sobre un PostgreSQL real (pg_trgm e
+ * índice GiST de V6) y verifica con EXPLAIN que la búsqueda usa el índice.
+ *
+ * Requiere Docker para ejecutarse. Ejecutar con:
+ * ./mvnw test -Dtest=PatientNameSearchIntegrationTest
+ */
+@DataR2dbcTest
+@Import({ PatientNameSearch.class, R2dbcSessionConfig.class })
+@Testcontainers(disabledWithoutDocker = true)
+@ActiveProfiles("test")
+class PatientNameSearchIntegrationTest {
+
+  @Container
+  @SuppressWarnings("resource") // Testcontainers gestiona el cierre automáticamente
+  static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine")
+      .withDatabaseName("test_mental_clinic")
+      .withUsername("test")
+      .withPassword("test");
+
+  @DynamicPropertySource
+  static void configureProperties(DynamicPropertyRegistry registry) {
+    String jdbcUrl = postgres.getJdbcUrl();
+
+    registry.add("spring.r2dbc.url", () -> jdbcUrl.replace("jdbc:", "r2dbc:"));
+    registry.add("spring.r2dbc.username", postgres::getUsername);
+    registry.add("spring.r2dbc.password", postgres::getPassword);
+    // El índice y la extensión vienen de las migraciones
+    registry.add("spring.flyway.enabled", () -> "true");
+    registry.add("spring.flyway.url", () -> jdbcUrl);
+    registry.add("spring.flyway.user", postgres::getUsername);
+    registry.add("spring.flyway.password", postgres::getPassword);
+  }
+
+  @Autowired
+  private PatientNameSearch patientNameSearch;
+
+  @Autowired
+  private DatabaseClient databaseClient;
+
+  @Autowired
+  private TransactionalOperator transactionalOperator;
+
+  @BeforeEach
+  void insertPatients() {
+    String[][] patients = {
+        { "9001", "Luis González Prado", "90010001" },
+        { "9002", "Ana Gonzales Ruiz", "90020002" },
+        { "9003", "Pedro Ramírez", "90030003" }
+    };
+    for (String[] patient : patients) {
+      databaseClient.sql("""
+          INSERT INTO "users" (id, username, password, role)
+          VALUES (:id, :username, 'hashedpassword', 'ROLE_PATIENT')
+          ON CONFLICT (id) DO NOTHING
+          """)
+          .bind("id", Long.parseLong(patient[0]))
+          .bind("username", "search_test_" + patient[0])
+          .then()
+          .block();
+      databaseClient.sql("""
+          INSERT INTO "patients" (id, name, dni) VALUES (:id, :name, :dni)
+          ON CONFLICT (id) DO NOTHING
+          """)
+          .bind("id", Long.parseLong(patient[0]))
+          .bind("name", patient[1])
+          .bind("dni", patient[2])
+          .then()
+          .block();
+    }
+  }
+
+  @Test
+  void findByName_ShouldTolerateTypos_AndOrderBySimilarity() {
+    StepVerifier.create(patientNameSearch.findByName("Gonsales").collectList())
+        .assertNext(found -> {
+          assertThat(found).extracting(p -> p.name())
+              .contains("Ana Gonzales Ruiz", "Luis González Prado")
+              .doesNotContain("Pedro Ramírez");
+          assertThat(found.get(0).name()).isEqualTo("Ana Gonzales Ruiz");
+        })
+        .verifyComplete();
+  }
+
+  @Test
+  void connection_ShouldCarrySimilarityThreshold() {
+    // Fijado al abrir la conexión: la búsqueda no necesita set_config ni transacción
+    StepVerifier.create(databaseClient.sql("SELECT current_setting('pg_trgm.similarity_threshold') AS threshold")
+            .map(row -> row.get("threshold", String.class))
+            .one())
+        .expectNext("0.1")
+        .verifyComplete();
+  }
+
+  @Test
+  void searchQuery_ShouldUseGistTrigramIndex() {
+    // Con pocas filas el planner prefiere un seq scan; se desactiva para
+    // comprobar que el índice es utilizable por el filtro y el ORDER BY
+    var plan = databaseClient.sql("SET LOCAL enable_seqscan = off")
+        .then()
+        .thenMany(databaseClient.sql("EXPLAIN " + PatientNameSearch.SEARCH_SQL)
+            .bind("name", "Gonsales")
+            .bind("limit", 20)
+            .map(row -> row.get(0, String.class))
+            .all())
+        .as(transactionalOperator::transactional)
+        .collectList()
+        .block();
+
+    assertThat(String.join("\n", plan))
+        .contains("trgm_gist_idx_patients_name")
+        .doesNotContain("Sort");
+  }
+}
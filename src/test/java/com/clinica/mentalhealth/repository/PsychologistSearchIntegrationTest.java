@@ -0,0 +1,143 @@
+package com.clinica.mentalhealth.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.clinica.mentalhealth.config.R2dbcSessionConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.test.StepVerifier;
+
+/**
+ * Test de integración para PsychologistSearch.
+ *
+ * Aplica las migraciones de Flyway sobre un PostgreSQL real y verifica con
+ * EXPLAIN que cada filtro usa su índice de V1.
+ *
+ * Requiere Docker para ejecutarse. Ejecutar con:
+ * ./mvnw test -Dtest=PsychologistSearchIntegrationTest
+ */
+@DataR2dbcTest
+@Import({ PsychologistSearch.class, R2dbcSessionConfig.class })
+@Testcontainers(disabledWithoutDocker = true)
+@ActiveProfiles("test")
+class PsychologistSearchIntegrationTest {
+
+  @Container
+  @SuppressWarnings("resource") // Testcontainers gestiona el cierre automáticamente
+  static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine")
+      .withDatabaseName("test_mental_clinic")
+      .withUsername("test")
+      .withPassword("test");
+
+  @DynamicPropertySource
+  static void configureProperties(DynamicPropertyRegistry registry) {
+    String jdbcUrl = postgres.getJdbcUrl();
+
+    registry.add("spring.r2dbc.url", () -> jdbcUrl.replace("jdbc:", "r2dbc:"));
+    registry.add("spring.r2dbc.username", postgres::getUsername);
+    registry.add("spring.r2dbc.password", postgres::getPassword);
+    // Los índices y la extensión vienen de las migraciones
+    registry.add("spring.flyway.enabled", () -> "true");
+    registry.add("spring.flyway.url", () -> jdbcUrl);
+    registry.add("spring.flyway.user", postgres::getUsername);
+    registry.add("spring.flyway.password", postgres::getPassword);
+  }
+
+  @Autowired
+  private PsychologistSearch psychologistSearch;
+
+  @Autowired
+  private DatabaseClient databaseClient;
+
+  @Autowired
+  private TransactionalOperator transactionalOperator;
+
+  @BeforeEach
+  void insertPsychologists() {
+    String[][] psychologists = {
+        { "9101", "Dra. Ana Torres", "Terapia Cognitivo-Conductual", "91010001" },
+        { "9102", "Dr. Andrés Ríos", "Terapia Cognitivo-Conductual", "91020002" },
+        { "9103", "Dra. Anabel Soto", "Psicología Infantil", "91030003" }
+    };
+    for (String[] psychologist : psychologists) {
+      databaseClient.sql("""
+          INSERT INTO "users" (id, username, password, role)
+          VALUES (:id, :username, 'hashedpassword', 'ROLE_PSYCHOLOGIST')
+          ON CONFLICT (id) DO NOTHING
+          """)
+          .bind("id", Long.parseLong(psychologist[0]))
+          .bind("username", "search_test_" + psychologist[0])
+          .then()
+          .block();
+      databaseClient.sql("""
+          INSERT INTO "psychologists" (id, name, specialty, email, phone, dni)
+          VALUES (:id, :name, :specialty, :email, '+51999000000', :dni)
+          ON CONFLICT (id) DO NOTHING
+          """)
+          .bind("id", Long.parseLong(psychologist[0]))
+          .bind("name", psychologist[1])
+          .bind("specialty", psychologist[2])
+          .bind("email", psychologist[0] + "@clinic.test")
+          .bind("dni", psychologist[3])
+          .then()
+          .block();
+    }
+  }
+
+  @Test
+  void search_ShouldCombineFuzzyNameAndExactSpecialty() {
+    StepVerifier.create(psychologistSearch.search("Ana Tores", "Terapia Cognitivo-Conductual", 10).collectList())
+        .assertNext(found -> {
+          assertThat(found).extracting(p -> p.specialty()).containsOnly("Terapia Cognitivo-Conductual");
+          assertThat(found.get(0).name()).isEqualTo("Dra. Ana Torres");
+        })
+        .verifyComplete();
+  }
+
+  @Test
+  void search_ShouldRespectLimit() {
+    StepVerifier.create(psychologistSearch.search(null, "Terapia Cognitivo-Conductual", 1))
+        .expectNextCount(1)
+        .verifyComplete();
+  }
+
+  @Test
+  void nameFilter_ShouldUseTrigramIndex() {
+    assertThat(explain(PsychologistSearch.sqlFor(true, false))).contains("trgm_idx_psychologists_name");
+  }
+
+  @Test
+  void specialtyFilter_ShouldUseSpecialtyIndex() {
+    assertThat(explain(PsychologistSearch.sqlFor(false, true))).contains("idx_psychologists_specialty");
+  }
+
+  private String explain(String sql) {
+    // Con pocas filas el planner prefiere un seq scan; se desactiva para
+    // comprobar que el índice es utilizable por el filtro
+    var spec = databaseClient.sql("EXPLAIN " + sql).bind("limit", 10);
+    if (sql.contains(":name")) {
+      spec = spec.bind("name", "Ana");
+    }
+    if (sql.contains(":specialty")) {
+      spec = spec.bind("specialty", "Psicología Infantil");
+    }
+    var plan = databaseClient.sql("SET LOCAL enable_seqscan = off")
+        .then()
+        .thenMany(spec.map(row -> row.get(0, String.class)).all())
+        .as(transactionalOperator::transactional)
+        .collectList()
+        .block();
+    return String.join("\n", plan);
+  }
+}
@@ -0,0 +1,104 @@
+package com.clinica.mentalhealth.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests para LoginAttemptTracker.
+ *
+ * El tiempo avanza con un ticker falso: 3 fallos permitidos en 10 minutos,
+ * bloqueo base de 30s y máximo de 2 minutos.
+ */
+@DisplayName("LoginAttemptTracker Tests")
+class LoginAttemptTrackerTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private LoginAttemptTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new LoginAttemptTracker(meterRegistry, 3, Duration.ofMinutes(10),
+                Duration.ofSeconds(30), Duration.ofMinutes(2), 1_000, nanos::get);
+    }
+
+    private void advance(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+
+    private void fail(String username, int times) {
+        for (int i = 0; i < times; i++) {
+            tracker.recordFailure(username);
+        }
+    }
+
+    @Test
+    @DisplayName("Debe bloquear al alcanzar el máximo de fallos y liberar al vencer el bloqueo")
+    void shouldLockAfterMaxFailures() {
+        fail("ana@clinica.com", 2);
+        assertEquals(Duration.ZERO, tracker.lockoutRemaining("ana@clinica.com"));
+
+        tracker.recordFailure("ana@clinica.com");
+        assertEquals(Duration.ofSeconds(30), tracker.lockoutRemaining("ana@clinica.com"));
+        // El username se normaliza
+        assertEquals(Duration.ofSeconds(30), tracker.lockoutRemaining("  ANA@clinica.com "));
+        assertEquals(Duration.ZERO, tracker.lockoutRemaining("otro@clinica.com"));
+
+        advance(Duration.ofSeconds(30));
+        assertEquals(Duration.ZERO, tracker.lockoutRemaining("ana@clinica.com"));
+        assertEquals(2.0, meterRegistry.get(LoginAttemptTracker.METRIC_REJECTED).counter().count());
+    }
+
+    @Test
+    @DisplayName("Cada fallo adicional dentro de la ventana debe duplicar el bloqueo hasta el máximo")
+    void shouldGrowLockoutExponentially() {
+        fail("ana", 3);
+        advance(Duration.ofSeconds(30));
+
+        tracker.recordFailure("ana");
+        assertEquals(Duration.ofMinutes(1), tracker.lockoutRemaining("ana"));
+        advance(Duration.ofMinutes(1));
+
+        fail("ana", 5);
+        assertEquals(Duration.ofMinutes(2), tracker.lockoutRemaining("ana"));
+    }
+
+    @Test
+    @DisplayName("Los fallos fuera de la ventana no deben contar")
+    void shouldForgetFailuresOutsideWindow() {
+        fail("ana", 2);
+        advance(Duration.ofMinutes(11));
+
+        fail("ana", 2);
+        assertEquals(Duration.ZERO, tracker.lockoutRemaining("ana"));
+    }
+
+    @Test
+    @DisplayName("Un login exitoso debe reiniciar el conteo")
+    void shouldResetOnSuccess() {
+        fail("ana", 2);
+        tracker.recordSuccess("ana");
+
+        fail("ana", 2);
+        assertEquals(Duration.ZERO, tracker.lockoutRemaining("ana"));
+    }
+
+    @Test
+    @DisplayName("Con un ticker de origen negativo no debe reportar bloqueos sin fallos suficientes")
+    void shouldNotLockWithNegativeTickerOrigin() {
+        nanos.set(-Duration.ofDays(1).toNanos());
+
+        fail("ana", 2);
+        assertEquals(Duration.ZERO, tracker.lockoutRemaining("ana"));
+
+        tracker.recordFailure("ana");
+        assertEquals(Duration.ofSeconds(30), tracker.lockoutRemaining("ana"));
+    }
+}
@@ -0,0 +1,105 @@
+package com.clinica.mentalhealth.security;
+
+import com.clinica.mentalhealth.web.exception.ServiceBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests para PasswordHashingService.
+ *
+ * Verifica que BCrypt corre en el pool propio y que, con la cola llena,
+ * las operaciones se rechazan de inmediato.
+ */
+@DisplayName("PasswordHashingService Tests")
+class PasswordHashingServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PasswordHashingService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Debe hashear y verificar fuera del hilo que se suscribe")
+    void shouldHashOnDedicatedPool() {
+        service = new PasswordHashingService(new BCryptPasswordEncoder(4), meterRegistry, 2, 8);
+
+        String hash = service.encode("secreto").block(Duration.ofSeconds(5));
+
+        StepVerifier.create(service.matches("secreto", hash)
+                        .map(matches -> matches + "@" + Thread.currentThread().getName()))
+                .assertNext(result -> assertTrue(result.startsWith("true@password-hash-"), result))
+                .verifyComplete();
+        StepVerifier.create(service.matches("otro", hash))
+                .expectNext(false)
+                .verifyComplete();
+        assertEquals(1, meterRegistry.get(PasswordHashingService.METRIC_LATENCY).tag("operation", "encode").timer().count());
+        assertEquals(2, meterRegistry.get(PasswordHashingService.METRIC_LATENCY).tag("operation", "matches").timer().count());
+    }
+
+    @Test
+    @DisplayName("Con el pool y la cola llenos debe rechazar con ServiceBusyException")
+    void shouldRejectWhenSaturated() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        service = new PasswordHashingService(new BlockingEncoder(started, release), meterRegistry, 1, 1);
+
+        // 1 en ejecución + 1 en cola
+        Mono<String> running = service.encode("a").cache();
+        running.subscribe();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Mono<String> queued = service.encode("b").cache();
+        queued.subscribe();
+
+        StepVerifier.create(service.encode("c"))
+                .expectErrorSatisfies(error -> {
+                    assertInstanceOf(ServiceBusyException.class, error);
+                    assertTrue(((ServiceBusyException) error).getRetryAfter().toSeconds() >= 1);
+                })
+                .verify(Duration.ofSeconds(1));
+        assertEquals(1.0, meterRegistry.get(PasswordHashingService.METRIC_QUEUE).gauge().value());
+        assertEquals(1.0, meterRegistry.get(PasswordHashingService.METRIC_REJECTED).counter().count());
+
+        release.countDown();
+        assertEquals("hash:a", running.block(Duration.ofSeconds(5)));
+        assertEquals("hash:b", queued.block(Duration.ofSeconds(5)));
+    }
+
+    /**
+     * Encoder que no termina hasta que el test lo libera.
+     */
+    private record BlockingEncoder(CountDownLatch started, CountDownLatch release) implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "hash:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encodedPassword.equals(encode(rawPassword));
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.clinica.mentalhealth.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import com.clinica.mentalhealth.domain.Appointment;
+import com.clinica.mentalhealth.domain.AppointmentEvent;
+import com.clinica.mentalhealth.domain.ResourceConflicts;
+import com.clinica.mentalhealth.repository.AppointmentRepository;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+/**
+ * Unit tests para AppointmentIntervalIndex.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AppointmentIntervalIndex Tests")
+class AppointmentIntervalIndexTest {
+
+  @Mock
+  private AppointmentRepository appointmentRepository;
+
+  @InjectMocks
+  private AppointmentIntervalIndex index;
+
+  private LocalDateTime tomorrowAt(int hour) {
+    return LocalDate.now().plusDays(1).atTime(hour, 0);
+  }
+
+  private Appointment appointment(Long id, int hour, Long patientId, Long psychologistId, Long roomId) {
+    return new Appointment(id, tomorrowAt(hour), tomorrowAt(hour + 1), patientId, psychologistId, roomId);
+  }
+
+  @BeforeEach
+  void setUp() {
+    // Psicólogo 2 atiende al paciente 1 en la sala 1 de 10:00 a 11:00
+    when(appointmentRepository.findByEndTimeAfter(any(LocalDateTime.class))).thenReturn(
+      Flux.just(appointment(100L, 10, 1L, 2L, 1L))
+    );
+    StepVerifier.create(index.reload()).verifyComplete();
+  }
+
+  @Nested
+  @DisplayName("covers()")
+  class CoversTests {
+
+    @Test
+    @DisplayName("Debe cubrir horarios desde hoy en adelante")
+    void shouldCoverFromToday() {
+      assertThat(index.covers(tomorrowAt(9))).isTrue();
+      assertThat(index.covers(LocalDate.now().atStartOfDay())).isTrue();
+    }
+
+    @Test
+    @DisplayName("No debe cubrir fechas pasadas")
+    void shouldNotCoverPast() {
+      assertThat(index.covers(LocalDate.now().minusDays(1).atTime(10, 0))).isFalse();
+    }
+  }
+
+  @Nested
+  @DisplayName("findConflicts()")
+  class FindConflictsTests {
+
+    @Test
+    @DisplayName("Debe detectar solapamiento por cada recurso")
+    void shouldDetectOverlapPerResource() {
+      ResourceConflicts conflicts = index.findConflicts(
+        new Appointment(null, tomorrowAt(10).plusMinutes(30), tomorrowAt(11).plusMinutes(30), 1L, 2L, 1L)
+      );
+
+      assertThat(conflicts).isEqualTo(new ResourceConflicts(true, true, true));
+    }
+
+    @Test
+    @DisplayName("Solo la sala ocupada cuando cambian psicólogo y paciente")
+    void shouldReportOnlyRoom() {
+      ResourceConflicts conflicts = index.findConflicts(appointment(null, 10, 7L, 8L, 1L));
+
+      assertThat(conflicts).isEqualTo(new ResourceConflicts(false, false, true));
+    }
+
+    @Test
+    @DisplayName("Citas contiguas no son conflicto")
+    void adjacentAppointmentsShouldNotConflict() {
+      assertThat(index.findConflicts(appointment(null, 11, 1L, 2L, 1L)).any()).isFalse();
+      assertThat(index.findConflicts(appointment(null, 9, 1L, 2L, 1L)).any()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Sala nula no genera conflicto de sala")
+    void nullRoomShouldNotConflict() {
+      assertThat(index.findConflicts(appointment(null, 10, 7L, 8L, null)).any()).isFalse();
+    }
+  }
+
+  @Nested
+  @DisplayName("add() / remove()")
+  class MutationTests {
+
+    @Test
+    @DisplayName("Una cita agregada debe generar conflicto")
+    void addedAppointmentShouldConflict() {
+      index.add(appointment(101L, 14, 3L, 4L, 2L));
+
+      assertThat(index.findConflicts(appointment(null, 14, 9L, 4L, 9L)).psychologistBusy()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Una cita cancelada debe liberar el horario")
+    void removedAppointmentShouldFreeSlot() {
+      index.remove(appointment(100L, 10, 1L, 2L, 1L));
+
+      assertThat(index.findConflicts(appointment(null, 10, 1L, 2L, 1L)).any()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Una reprogramación de otra instancia debe mover la cita")
+    void rescheduleEventShouldMoveAppointment() {
+      index.apply(new AppointmentEvent(AppointmentEvent.Type.RESCHEDULED, appointment(100L, 15, 1L, 2L, 1L)));
+
+      assertThat(index.findConflicts(appointment(null, 10, 1L, 2L, 1L)).any()).isFalse();
+      assertThat(index.findConflicts(appointment(null, 15, 1L, 2L, 1L)).roomBusy()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Una cancelación de otra instancia debe liberar el horario")
+    void cancelEventShouldFreeSlot() {
+      index.apply(new AppointmentEvent(AppointmentEvent.Type.CANCELLED, appointment(100L, 10, 1L, 2L, 1L)));
+
+      assertThat(index.findConflicts(appointment(null, 10, 1L, 2L, 1L)).any()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Los cambios recibidos durante una recarga no deben perderse al publicarla")
+    void shouldKeepChangesMadeDuringReload() {
+      Sinks.Many<Appointment> rows = Sinks.many().unicast().onBackpressureBuffer();
+      when(appointmentRepository.findByEndTimeAfter(any(LocalDateTime.class))).thenReturn(rows.asFlux());
+      StepVerifier.Step<Void> reload = StepVerifier.create(index.reload());
+
+      reload.then(() -> {
+          rows.tryEmitNext(appointment(100L, 10, 1L, 2L, 1L));
+          // Alta y cancelación confirmadas mientras se recorre la tabla
+          index.apply(new AppointmentEvent(AppointmentEvent.Type.CREATED, appointment(101L, 14, 3L, 4L, 2L)));
+          index.apply(new AppointmentEvent(AppointmentEvent.Type.CANCELLED, appointment(100L, 10, 1L, 2L, 1L)));
+          rows.tryEmitComplete();
+        })
+        .verifyComplete();
+
+      assertThat(index.findConflicts(appointment(null, 14, 9L, 4L, 9L)).psychologistBusy()).isTrue();
+      assertThat(index.findConflicts(appointment(null, 10, 1L, 2L, 1L)).any()).isFalse();
+    }
+  }
+}
@@ -1,8 +1,16 @@
 package com.clinica.mentalhealth.service;
 
 import com.clinica.mentalhealth.domain.Appointment;
+import com.clinica.mentalhealth.domain.BookableRoom;
+import com.clinica.mentalhealth.domain.ResourceConflicts;
+import com.clinica.mentalhealth.domain.Room;
 import com.clinica.mentalhealth.repository.AppointmentRepository;
+import com.clinica.mentalhealth.repository.RoomRepository;
 import com.clinica.mentalhealth.security.UserPrincipal;
+import com.clinica.mentalhealth.web.dto.AppointmentSeriesReport;
+import com.clinica.mentalhealth.web.dto.AppointmentSeriesRequest;
+import com.clinica.mentalhealth.web.dto.SlotCandidate;
+import com.clinica.mentalhealth.web.exception.ConflictException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -12,12 +20,23 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.ReactiveSecurityContextHolder;
 import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
 @ExtendWith(MockitoExtension.class)
 @ActiveProfiles("test") // Usamos Mockito puro, sin Spring Context (¡Rapidísimo!)
 class AppointmentServiceTest {
@@ -25,6 +44,12 @@ class AppointmentServiceTest {
     @Mock
     private AppointmentRepository appointmentRepository;
 
+    @Mock
+    private AppointmentIntervalIndex intervalIndex;
+
+    @Mock
+    private RoomRepository roomRepository;
+
     @InjectMocks
     private AppointmentService appointmentService;
 
@@ -52,4 +77,128 @@ class AppointmentServiceTest {
                 )
                 .verify(); // ¡Importante! Sin .verify(), nada se ejecuta.
     }
-}
\ No newline at end of file
+
+    @Test
+    void createAppointment_ShouldReportRoomConflict_FromSingleQuery() {
+        // Lunes 24 Nov 2025, fuera de la ventana del índice en memoria
+        var monday = LocalDateTime.of(2025, 11, 24, 10, 0);
+        var cita = new Appointment(null, monday, monday.plusHours(1), 3L, 2L, 1L);
+
+        var principal = new UserPrincipal(3L, "pepe", "ROLE_PATIENT");
+        var auth = new UsernamePasswordAuthenticationToken(principal, null, List.of(new SimpleGrantedAuthority("ROLE_PATIENT")));
+
+        when(appointmentRepository.findResourceConflicts(2L, 3L, 1L, monday, monday.plusHours(1)))
+                .thenReturn(Mono.just(new ResourceConflicts(false, false, true)));
+
+        Mono<Appointment> resultado = appointmentService.createAppointment(cita)
+                .contextWrite(ReactiveSecurityContextHolder.withAuthentication(auth));
+
+        StepVerifier.create(resultado)
+                .expectErrorMatches(throwable ->
+                        throwable instanceof ConflictException &&
+                                throwable.getMessage().equals("Sala ocupada."))
+                .verify();
+
+        verify(appointmentRepository, never()).save(any());
+    }
+
+    @Test
+    void bookSeries_ShouldReportEachOccurrence_AndInsertOnlyFreeOnes() {
+        // Lunes 24 Nov 2025, 3 sesiones semanales; la segunda choca con otra cita
+        var first = LocalDateTime.of(2025, 11, 24, 10, 0);
+        var request = new AppointmentSeriesRequest(3L, 2L, 1L, first, 60, 1, 3, null);
+
+        when(appointmentRepository.findSeriesConflicts(eq(2L), eq(3L), eq(1L), any(), any()))
+                .thenReturn(Flux.just(
+                        ResourceConflicts.NONE,
+                        new ResourceConflicts(true, false, false),
+                        ResourceConflicts.NONE));
+        when(appointmentRepository.insertSeries(eq(2L), eq(3L), eq(1L), any(), any()))
+                .thenReturn(Flux.just(
+                        new Appointment(10L, first, first.plusHours(1), 3L, 2L, 1L),
+                        new Appointment(11L, first.plusWeeks(2), first.plusWeeks(2).plusHours(1), 3L, 2L, 1L)));
+
+        StepVerifier.create(appointmentService.bookSeries(request))
+                .assertNext(report -> {
+                    assertThat(report.requested()).isEqualTo(3);
+                    assertThat(report.booked()).isEqualTo(2);
+                    assertThat(report.occurrences())
+                            .extracting(AppointmentSeriesReport.Occurrence::status)
+                            .containsExactly(
+                                    AppointmentSeriesReport.Status.BOOKED,
+                                    AppointmentSeriesReport.Status.CONFLICT,
+                                    AppointmentSeriesReport.Status.BOOKED);
+                    assertThat(report.occurrences().get(1).message()).isEqualTo("Psicólogo ocupado.");
+                    assertThat(report.occurrences().get(2).appointmentId()).isEqualTo(11L);
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void bookSeries_ShouldFail_WhenNeitherOccurrencesNorUntil() {
+        var request = new AppointmentSeriesRequest(3L, 2L, 1L, LocalDateTime.of(2025, 11, 24, 10, 0), 60, 1, null, null);
+
+        StepVerifier.create(appointmentService.bookSeries(request))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+    }
+
+    @Test
+    void findJointSlots_ShouldSkipBusySlots_AndSuggestFreeRoom() {
+        // Próximo lunes: psicólogo ocupado a las 08:00, sala 1 ocupada a las 09:00
+        var monday = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+
+        when(roomRepository.findBookable(2)).thenReturn(Flux.just(new BookableRoom(1L, 2), new BookableRoom(2L, 2)));
+        when(appointmentRepository.findJointScheduleOverlapping(eq(2L), eq(3L), any(), any()))
+                .thenReturn(Flux.just(
+                        new Appointment(1L, monday.atTime(8, 0), monday.atTime(9, 0), 7L, 2L, 2L),
+                        new Appointment(2L, monday.atTime(9, 0), monday.atTime(10, 0), 8L, 5L, 1L)));
+
+        StepVerifier.create(appointmentService.findJointSlots(2L, 3L, monday, 1, 2))
+                .expectNext(new SlotCandidate(monday.atTime(9, 0), monday.atTime(10, 0), 2L))
+                .expectNext(new SlotCandidate(monday.atTime(10, 0), monday.atTime(11, 0), 1L))
+                .verifyComplete();
+    }
+
+    @Test
+    void findJointSlots_ShouldSuggestRoomInBestFitOrder() {
+        // Sala 1 chica, salas 2 y 3 grandes; la 3 tiene una cita que termina a las 09:00
+        var monday = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+
+        when(roomRepository.findBookable(2)).thenReturn(Flux.just(
+                new BookableRoom(1L, 2), new BookableRoom(2L, 6), new BookableRoom(3L, 6)));
+        when(appointmentRepository.findJointScheduleOverlapping(eq(2L), eq(3L), any(), any()))
+                .thenReturn(Flux.just(
+                        new Appointment(1L, monday.atTime(8, 0), monday.atTime(10, 0), 7L, 5L, 1L),
+                        new Appointment(2L, monday.atTime(8, 0), monday.atTime(9, 0), 8L, 6L, 3L)));
+
+        // 08:00 solo la sala 2; 09:00 la sala 1 ocupada, entre las grandes gana la 3 (cita pegada);
+        // 10:00 vuelve la sala 1, la de menor capacidad
+        StepVerifier.create(appointmentService.findJointSlots(2L, 3L, monday, 1, 3))
+                .expectNext(new SlotCandidate(monday.atTime(8, 0), monday.atTime(9, 0), 2L))
+                .expectNext(new SlotCandidate(monday.atTime(9, 0), monday.atTime(10, 0), 3L))
+                .expectNext(new SlotCandidate(monday.atTime(10, 0), monday.atTime(11, 0), 1L))
+                .verifyComplete();
+    }
+
+    @Test
+    void createAppointment_ShouldAllocateRoom_WhenRoomIsMissing() {
+        var monday = LocalDateTime.of(2025, 11, 24, 10, 0);
+        var cita = new Appointment(null, monday, monday.plusHours(1), 3L, 2L, null);
+        var asignada = new Appointment(null, monday, monday.plusHours(1), 3L, 2L, 4L);
+
+        var principal = new UserPrincipal(3L, "pepe", "ROLE_PATIENT");
+        var auth = new UsernamePasswordAuthenticationToken(principal, null, List.of(new SimpleGrantedAuthority("ROLE_PATIENT")));
+
+        when(roomRepository.findBestFitRoom(monday, monday.plusHours(1), 2)).thenReturn(Mono.just(new Room(4L, "Sala Azul")));
+        when(appointmentRepository.findResourceConflicts(2L, 3L, 4L, monday, monday.plusHours(1)))
+                .thenReturn(Mono.just(ResourceConflicts.NONE));
+        when(appointmentRepository.save(asignada))
+                .thenReturn(Mono.just(new Appointment(50L, monday, monday.plusHours(1), 3L, 2L, 4L)));
+
+        StepVerifier.create(appointmentService.createAppointment(cita)
+                        .contextWrite(ReactiveSecurityContextHolder.withAuthentication(auth)))
+                .assertNext(saved -> assertThat(saved.roomId()).isEqualTo(4L))
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,63 @@
+package com.clinica.mentalhealth.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/**
+ * Unit tests para PageCursor.
+ */
+@DisplayName("PageCursor Tests")
+class PageCursorTest {
+
+  @Test
+  @DisplayName("El cursor debe ser reversible, incluso con '|' en la clave")
+  void shouldRoundTrip() {
+    String token = PageCursor.encode("name", "Pérez | Ana", 42L);
+
+    PageCursor.Position position = PageCursor.decode(token, "name");
+
+    assertThat(position.key()).isEqualTo("Pérez | Ana");
+    assertThat(position.id()).isEqualTo(42L);
+  }
+
+  @Test
+  @DisplayName("Un cursor emitido para otro orden es inválido")
+  void shouldRejectCursorFromOtherSort() {
+    String token = PageCursor.encode("id", null, 7L);
+
+    assertThatThrownBy(() -> PageCursor.decode(token, "name"))
+      .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> PageCursor.decode("no-es-base64!", "id"))
+      .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  @DisplayName("Debe rechazar tamaños fuera de rango")
+  void shouldEnforceMaxPageSize() {
+    assertThat(PageCursor.pageSize(null)).isEqualTo(PageCursor.DEFAULT_SIZE);
+    assertThatThrownBy(() -> PageCursor.pageSize(PageCursor.MAX_SIZE + 1))
+      .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  @DisplayName("La fila extra indica que hay página siguiente")
+  void extraRowShouldProduceNextCursor() {
+    StepVerifier.create(PageCursor.toPage(Flux.just(1L, 2L, 3L), 2, id -> "c" + id, Mono.empty()))
+      .assertNext(page -> {
+        assertThat(page.items()).containsExactly(1L, 2L);
+        assertThat(page.nextCursor()).isEqualTo("c2");
+        assertThat(page.approximateTotal()).isNull();
+      })
+      .verifyComplete();
+
+    StepVerifier.create(PageCursor.toPage(Flux.just(1L), 2, id -> "c" + id, Mono.just(1L)))
+      .assertNext(page -> assertThat(page.nextCursor()).isNull())
+      .verifyComplete();
+  }
+}
@@ -0,0 +1,127 @@
+package com.clinica.mentalhealth.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.clinica.mentalhealth.config.ReactiveCache;
+import com.clinica.mentalhealth.security.PasswordHashingService;
+import com.clinica.mentalhealth.web.dto.PatientImportResult;
+import com.clinica.mentalhealth.web.dto.PatientImportResult.Status;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/**
+ * Test de integración para la importación masiva de PatientImportService.
+ *
+ * Verifica contra un PostgreSQL real los INSERT multi-fila con unnest y la
+ * detección de duplicados con {@code = ANY(...)}.
+ *
+ * Requiere Docker para ejecutarse. Ejecutar con:
+ * ./mvnw test -Dtest=PatientImportIntegrationTest
+ */
+@DataR2dbcTest
+@Import({ PatientImportService.class, ObjectMapper.class })
+@Testcontainers(disabledWithoutDocker = true)
+@ActiveProfiles("test")
+class PatientImportIntegrationTest {
+
+  @Container
+  @SuppressWarnings("resource") // Testcontainers gestiona el cierre automáticamente
+  static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine")
+      .withDatabaseName("test_mental_clinic")
+      .withUsername("test")
+      .withPassword("test");
+
+  @DynamicPropertySource
+  static void configureProperties(DynamicPropertyRegistry registry) {
+    String jdbcUrl = postgres.getJdbcUrl();
+
+    registry.add("spring.r2dbc.url", () -> jdbcUrl.replace("jdbc:", "r2dbc:"));
+    registry.add("spring.r2dbc.username", postgres::getUsername);
+    registry.add("spring.r2dbc.password", postgres::getPassword);
+    registry.add("spring.flyway.enabled", () -> "true");
+    registry.add("spring.flyway.url", () -> jdbcUrl);
+    registry.add("spring.flyway.user", postgres::getUsername);
+    registry.add("spring.flyway.password", postgres::getPassword);
+  }
+
+  @MockitoBean
+  private PasswordHashingService passwordHashingService;
+
+  @MockitoBean
+  private ReactiveCache reactiveCache;
+
+  @MockitoBean
+  private TypeaheadIndex typeaheadIndex;
+
+  @Autowired
+  private PatientImportService patientImportService;
+
+  @Autowired
+  private DatabaseClient databaseClient;
+
+  @BeforeEach
+  void setUp() {
+    when(passwordHashingService.encode(anyString())).thenReturn(Mono.just("hashedpassword"));
+    when(reactiveCache.evictAfterCommit(any())).thenReturn(Mono.empty());
+    when(typeaheadIndex.putAfterCommit(any(), any(), any())).thenReturn(Mono.empty());
+    databaseClient.sql("""
+        INSERT INTO "users" (id, username, password, role)
+        VALUES (9201, 'existente@test.com', 'hashedpassword', 'ROLE_PATIENT')
+        ON CONFLICT (id) DO NOTHING
+        """).then().block();
+    databaseClient.sql("""
+        INSERT INTO "patients" (id, name, dni) VALUES (9201, 'Paciente Existente', '92010001')
+        ON CONFLICT (id) DO NOTHING
+        """).then().block();
+  }
+
+  @Test
+  void importPatients_ShouldInsertNewRowsAndReportDuplicates() {
+    Flux<String> csv = Flux.just(
+        "name,email,phone,dni",
+        "Nuevo Uno,nuevo1@test.com,999000001,92020001",
+        "Repetido BD,otro@test.com,999000002,92010001",
+        "Nuevo Dos,nuevo2@test.com,999000003,92020002",
+        "Repetido Archivo,nuevo3@test.com,999000004,92020001");
+
+    StepVerifier.create(patientImportService.importPatients(csv, PatientImportService.Format.CSV).collectList())
+        .assertNext(results -> assertThat(results).extracting(PatientImportResult::status)
+            .containsExactly(Status.CREATED, Status.DUPLICATE, Status.CREATED, Status.DUPLICATE))
+        .verifyComplete();
+
+    Long count = databaseClient.sql("SELECT COUNT(*) AS total FROM \"patients\" WHERE dni LIKE '9202%'")
+        .map(row -> row.get("total", Long.class))
+        .one()
+        .block();
+    assertThat(count).isEqualTo(2L);
+    // Solo se invalidan las claves de los pacientes creados, no la región completa
+    verify(reactiveCache).evictAfterCommit(argThat(keys -> keys.size() == 4
+        && keys.contains("patient:dni:92020001") && keys.contains("patient:dni:92020002")));
+    verify(reactiveCache, never()).evictByPrefix(anyString());
+    // La contraseña inicial se hashea una vez por importación, no por fila
+    verify(passwordHashingService, times(1)).encode(anyString());
+  }
+}
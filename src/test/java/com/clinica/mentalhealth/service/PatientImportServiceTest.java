@@ -0,0 +1,86 @@
+package com.clinica.mentalhealth.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.clinica.mentalhealth.service.PatientImportService.Format;
+import com.clinica.mentalhealth.service.PatientImportService.Row;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+/**
+ * Unit tests para el parseo y la validación de PatientImportService.
+ * La inserción por lotes se cubre en PatientImportIntegrationTest.
+ */
+@DisplayName("PatientImportService Tests")
+class PatientImportServiceTest {
+
+  private final PatientImportService service = new PatientImportService(
+    null, null, null, null, null, new ObjectMapper(), 500
+  );
+
+  @Nested
+  @DisplayName("parse() CSV")
+  class CsvTests {
+
+    @Test
+    @DisplayName("Debe leer las columnas por nombre y numerar las líneas del archivo")
+    void shouldMapColumnsByHeader() {
+      Flux<String> lines = Flux.just(
+        "dni,name,phone,email",
+        "12345678,\"Pérez, Juan\",+51999888777,juan@test.com",
+        "",
+        "87654321,Ana Ruiz,999888777,ana@test.com"
+      );
+
+      StepVerifier.create(service.parse(lines, Format.CSV))
+        .expectNext(new Row(2, "Pérez, Juan", "juan@test.com", "+51999888777", "12345678", null))
+        .expectNext(new Row(4, "Ana Ruiz", "ana@test.com", "999888777", "87654321", null))
+        .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Debe rechazar una cabecera sin las columnas requeridas")
+    void shouldRejectIncompleteHeader() {
+      StepVerifier.create(service.parse(Flux.just("name,email", "Ana,ana@test.com"), Format.CSV))
+        .expectError(IllegalArgumentException.class)
+        .verify();
+    }
+
+    @Test
+    @DisplayName("Debe soportar comillas escapadas")
+    void shouldSplitQuotedFields() {
+      assertThat(PatientImportService.splitCsv("a,\"b \"\"c\"\"\",d"))
+        .containsExactly("a", "b \"c\"", "d");
+    }
+  }
+
+  @Nested
+  @DisplayName("parse() NDJSON")
+  class NdjsonTests {
+
+    @Test
+    @DisplayName("Debe marcar como inválidas las filas mal formadas sin detener el resto")
+    void shouldReportInvalidRows() {
+      Flux<String> lines = Flux.just(
+        "{\"name\":\"Ana Ruiz\",\"email\":\"ana@test.com\",\"phone\":\"999888777\",\"dni\":\"87654321\"}",
+        "{\"name\":\"Sin DNI\",\"email\":\"x@test.com\",\"phone\":\"999888777\"}",
+        "{no es json",
+        "{\"name\":\"Luis\",\"email\":\"luis@test.com\",\"phone\":\"999888777\",\"dni\":\"123\"}"
+      );
+
+      StepVerifier.create(service.parse(lines, Format.NDJSON))
+        .assertNext(row -> assertThat(row.error()).isNull())
+        .assertNext(row -> assertThat(row.error()).contains("DNI"))
+        .assertNext(row -> assertThat(row.error()).startsWith("JSON inválido"))
+        .assertNext(row -> {
+          assertThat(row.line()).isEqualTo(4);
+          assertThat(row.error()).contains("8 dígitos");
+        })
+        .verifyComplete();
+    }
+  }
+}
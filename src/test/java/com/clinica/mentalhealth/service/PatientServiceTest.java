@@ -4,12 +4,23 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
+import com.clinica.mentalhealth.config.ReactiveCache;
 import com.clinica.mentalhealth.domain.Patient;
 import com.clinica.mentalhealth.domain.Role;
 import com.clinica.mentalhealth.domain.User;
+import com.clinica.mentalhealth.repository.PatientNameSearch;
 import com.clinica.mentalhealth.repository.PatientRepository;
 import com.clinica.mentalhealth.repository.UserRepository;
+import com.clinica.mentalhealth.security.PasswordHashingService;
+import io.r2dbc.postgresql.api.ErrorDetails;
+import io.r2dbc.postgresql.api.PostgresqlException;
+import io.r2dbc.postgresql.message.backend.Field;
+import io.r2dbc.postgresql.message.backend.Field.FieldType;
+import io.r2dbc.spi.R2dbcDataIntegrityViolationException;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -18,10 +29,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.HttpStatus;
 import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.r2dbc.core.FetchSpec;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.r2dbc.core.RowsFetchSpec;
 import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -44,7 +56,7 @@ class PatientServiceTest {
   private UserRepository userRepository;
 
   @Mock
-  private PasswordEncoder passwordEncoder;
+  private PasswordHashingService passwordHashingService;
 
   @Mock
   private DatabaseClient databaseClient;
@@ -55,6 +67,15 @@ class PatientServiceTest {
   @Mock
   private FetchSpec<Map<String, Object>> fetchSpec;
 
+  @Mock
+  private ReactiveCache reactiveCache;
+
+  @Mock
+  private PatientNameSearch patientNameSearch;
+
+  @Mock
+  private TypeaheadIndex typeaheadIndex;
+
   @InjectMocks
   private PatientService patientService;
 
@@ -63,6 +84,9 @@ class PatientServiceTest {
 
   @BeforeEach
   void setUp() {
+    lenient().when(reactiveCache.evictAfterCommit(any())).thenReturn(Mono.empty());
+    lenient().when(typeaheadIndex.putAfterCommit(any(), any(), any())).thenReturn(Mono.empty());
+    lenient().when(typeaheadIndex.removeAfterCommit(any(), any())).thenReturn(Mono.empty());
     testPatient = new Patient(
       1L,
       "Juan Pérez",
@@ -176,7 +200,7 @@ class PatientServiceTest {
         .verifyComplete();
 
       verify(patientRepository).findByDni("12345678");
-      verify(patientRepository, never()).findByNameLike(anyString());
+      verify(patientNameSearch, never()).findByName(anyString());
     }
 
     @Test
@@ -190,7 +214,7 @@ class PatientServiceTest {
         "+51999666555",
         "11223344"
       );
-      when(patientRepository.findByNameLike("Juan")).thenReturn(
+      when(patientNameSearch.findByName("Juan")).thenReturn(
         Flux.just(testPatient, patient2)
       );
 
@@ -200,7 +224,7 @@ class PatientServiceTest {
         .expectNext(patient2)
         .verifyComplete();
 
-      verify(patientRepository).findByNameLike("Juan");
+      verify(patientNameSearch).findByName("Juan");
       verify(patientRepository, never()).findByDni(anyString());
     }
 
@@ -220,7 +244,7 @@ class PatientServiceTest {
     @DisplayName("Debe buscar por nombre con números mixtos")
     void shouldSearchByNameWhenQueryHasMixedContent() {
       // Arrange - Query con letras y números se trata como nombre
-      when(patientRepository.findByNameLike("Juan123")).thenReturn(
+      when(patientNameSearch.findByName("Juan123")).thenReturn(
         Flux.empty()
       );
 
@@ -229,7 +253,7 @@ class PatientServiceTest {
         patientService.searchPatient("Juan123")
       ).verifyComplete();
 
-      verify(patientRepository).findByNameLike("Juan123");
+      verify(patientNameSearch).findByName("Juan123");
     }
   }
 
@@ -237,20 +261,31 @@ class PatientServiceTest {
   @DisplayName("createPatient()")
   class CreatePatientTests {
 
-    @SuppressWarnings("null")
+    @Mock
+    private RowsFetchSpec<Long> rowsFetchSpec;
+
+    @SuppressWarnings({ "unchecked", "null" })
+    private void givenCreateStatement(Mono<Long> result) {
+      when(passwordHashingService.encode("123")).thenReturn(Mono.just("encodedPassword"));
+      when(databaseClient.sql(anyString())).thenReturn(executeSpec);
+      when(executeSpec.bind(anyString(), any())).thenReturn(executeSpec);
+      when(executeSpec.map(any(BiFunction.class))).thenReturn(rowsFetchSpec);
+      when(rowsFetchSpec.one()).thenReturn(result);
+    }
+
+    private DuplicateKeyException violationOf(String constraint) {
+      ErrorDetails details = new ErrorDetails(List.of(
+        new Field(FieldType.CODE, "23505"),
+        new Field(FieldType.MESSAGE, "duplicate key value violates unique constraint \"" + constraint + "\""),
+        new Field(FieldType.CONSTRAINT_NAME, constraint)
+      ));
+      return new DuplicateKeyException("duplicate key", new UniqueViolation(details));
+    }
+
     @Test
-    @DisplayName("Debe fallar cuando DNI ya existe")
+    @DisplayName("Debe fallar cuando DNI ya existe (restricción UNIQUE)")
     void shouldFailWhenDniAlreadyExists() {
-      // Arrange - Cuando el paciente ya existe, findByDni retorna el paciente
-      // El switchIfEmpty necesita que userRepository.save esté mockeado aunque no se llame
-      // debido a cómo funciona la evaluación de operadores en Reactor
-      when(patientRepository.findByDni("12345678")).thenReturn(
-        Mono.just(testPatient)
-      );
-      when(passwordEncoder.encode(anyString())).thenReturn("encodedPassword");
-      when(userRepository.save(any(User.class))).thenReturn(
-        Mono.just(testUser)
-      );
+      givenCreateStatement(Mono.error(violationOf("patients_dni_key")));
 
       // Act & Assert
       StepVerifier.create(
@@ -270,11 +305,28 @@ class PatientServiceTest {
         )
         .verify();
 
-      verify(patientRepository).findByDni("12345678");
+      verify(patientRepository, never()).findByDni(anyString());
+      verify(reactiveCache, never()).evictAfterCommit(any());
+    }
+
+    @Test
+    @DisplayName("Debe fallar cuando el email ya es usuario (restricción UNIQUE)")
+    void shouldFailWhenEmailAlreadyExists() {
+      givenCreateStatement(Mono.error(violationOf("users_username_key")));
+
+      StepVerifier.create(
+        patientService.createPatient("Nuevo Paciente", "nuevo@test.com", "+51999111222", "12345678")
+      )
+        .expectErrorMatches(
+          throwable ->
+            throwable instanceof IllegalArgumentException &&
+            throwable.getMessage().contains("nuevo@test.com")
+        )
+        .verify();
     }
 
     @Test
-    @DisplayName("Debe crear paciente exitosamente con nuevo DNI")
+    @DisplayName("Debe crear paciente exitosamente con una sola sentencia")
     @SuppressWarnings({ "null" })
     void shouldCreatePatientSuccessfully() {
       // Arrange
@@ -282,18 +334,7 @@ class PatientServiceTest {
       String email = "nuevo@test.com";
       String phone = "+51999111222";
       String dni = "99998888";
-
-      when(patientRepository.findByDni(dni)).thenReturn(Mono.empty());
-      when(passwordEncoder.encode("123")).thenReturn("encodedPassword");
-
-      User newUser = new User(5L, email, "encodedPassword", Role.ROLE_PATIENT);
-      when(userRepository.save(any(User.class))).thenReturn(Mono.just(newUser));
-
-      // Mock DatabaseClient chain
-      when(databaseClient.sql(anyString())).thenReturn(executeSpec);
-      when(executeSpec.bind(anyString(), any())).thenReturn(executeSpec);
-      when(executeSpec.fetch()).thenReturn(fetchSpec);
-      when(fetchSpec.rowsUpdated()).thenReturn(Mono.just(1L));
+      givenCreateStatement(Mono.just(5L));
 
       // Act & Assert
       StepVerifier.create(patientService.createPatient(name, email, phone, dni))
@@ -306,8 +347,28 @@ class PatientServiceTest {
         )
         .verifyComplete();
 
-      verify(patientRepository).findByDni(dni);
-      verify(userRepository).save(any(User.class));
+      verify(databaseClient, times(1)).sql(anyString());
+      verify(patientRepository, never()).findByDni(anyString());
+      verify(userRepository, never()).save(any(User.class));
+      verify(reactiveCache).evictAfterCommit(Set.of("patient:5", "patient:dni:99998888"));
+    }
+  }
+
+  /**
+   * Excepción del driver con el nombre de la restricción violada.
+   */
+  static final class UniqueViolation extends R2dbcDataIntegrityViolationException implements PostgresqlException {
+
+    private final ErrorDetails details;
+
+    UniqueViolation(ErrorDetails details) {
+      super(details.getMessage(), details.getCode());
+      this.details = details;
+    }
+
+    @Override
+    public ErrorDetails getErrorDetails() {
+      return details;
     }
   }
 
@@ -329,6 +390,7 @@ class PatientServiceTest {
       verify(patientRepository).findById(1L);
       verify(patientRepository).deleteById(1L);
       verify(userRepository).deleteById(1L);
+      verify(reactiveCache).evictAfterCommit(Set.of("patient:1", "patient:dni:12345678"));
     }
 
     @Test
@@ -372,7 +434,7 @@ class PatientServiceTest {
     @DisplayName("searchPatient con query vacío debe retornar vacío")
     void searchWithEmptyQueryShouldReturnEmpty() {
       // Arrange
-      when(patientRepository.findByNameLike("")).thenReturn(Flux.empty());
+      when(patientNameSearch.findByName("")).thenReturn(Flux.empty());
 
       // Act & Assert
       StepVerifier.create(patientService.searchPatient("")).verifyComplete();
@@ -382,7 +444,7 @@ class PatientServiceTest {
     @DisplayName("searchPatient con espacios solo números")
     void searchWithSpacesAndNumbers() {
       // Arrange - "123 456" tiene espacios, así que no es solo números
-      when(patientRepository.findByNameLike("123 456")).thenReturn(
+      when(patientNameSearch.findByName("123 456")).thenReturn(
         Flux.empty()
       );
 
@@ -391,7 +453,7 @@ class PatientServiceTest {
         patientService.searchPatient("123 456")
       ).verifyComplete();
 
-      verify(patientRepository).findByNameLike("123 456");
+      verify(patientNameSearch).findByName("123 456");
     }
   }
 }
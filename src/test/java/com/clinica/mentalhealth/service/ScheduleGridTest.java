@@ -0,0 +1,52 @@
+package com.clinica.mentalhealth.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.clinica.mentalhealth.domain.Appointment;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests para ScheduleGrid.
+ */
+@DisplayName("ScheduleGrid Tests")
+class ScheduleGridTest {
+
+  // Lunes 24 Nov 2025
+  private static final LocalDate MONDAY = LocalDate.of(2025, 11, 24);
+
+  @Test
+  @DisplayName("Día hábil sin citas: 14 slots libres de 08:00 a 21:00")
+  void emptyWeekdayShouldBeFullyFree() {
+    List<String> labels = ScheduleGrid.labels(ScheduleGrid.freeMask(MONDAY, List.of()));
+
+    assertThat(labels).hasSize(14).startsWith("08:00").endsWith("21:00");
+  }
+
+  @Test
+  @DisplayName("Domingo: sin slots libres")
+  void sundayShouldBeClosed() {
+    assertThat(ScheduleGrid.freeMask(MONDAY.minusDays(1), List.of())).isZero();
+  }
+
+  @Test
+  @DisplayName("Una cita de 10:30 a 11:30 ocupa los slots de 10:00 y 11:00")
+  void partialOverlapShouldBlockBothSlots() {
+    Appointment appointment = new Appointment(1L, MONDAY.atTime(10, 30), MONDAY.atTime(11, 30), 1L, 2L, 1L);
+
+    List<String> labels = ScheduleGrid.labels(ScheduleGrid.freeMask(MONDAY, List.of(appointment)));
+
+    assertThat(labels).doesNotContain("10:00", "11:00").contains("09:00", "12:00");
+  }
+
+  @Test
+  @DisplayName("Una cita de otro día no afecta la máscara")
+  void otherDayShouldNotAffectMask() {
+    Appointment appointment = new Appointment(1L, MONDAY.plusDays(1).atTime(10, 0),
+      MONDAY.plusDays(1).atTime(11, 0), 1L, 2L, 1L);
+
+    assertThat(ScheduleGrid.freeMask(MONDAY, List.of(appointment))).isEqualTo(ScheduleGrid.ALL_SLOTS);
+  }
+}
@@ -0,0 +1,179 @@
+package com.clinica.mentalhealth.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.clinica.mentalhealth.domain.Patient;
+import com.clinica.mentalhealth.domain.Psychologist;
+import com.clinica.mentalhealth.repository.PatientNameSearch;
+import com.clinica.mentalhealth.repository.PatientRepository;
+import com.clinica.mentalhealth.repository.PsychologistRepository;
+import com.clinica.mentalhealth.web.dto.NameSuggestion;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+/**
+ * Unit tests para TypeaheadIndex y el fallback fuzzy de TypeaheadService.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TypeaheadIndex Tests")
+class TypeaheadIndexTest {
+
+  @Mock
+  private PatientRepository patientRepository;
+
+  @Mock
+  private PsychologistRepository psychologistRepository;
+
+  @Mock
+  private NameChangeFeed nameChangeFeed;
+
+  @Mock
+  private PatientNameSearch patientNameSearch;
+
+  @Mock
+  private PsychologistService psychologistService;
+
+  private TypeaheadIndex index;
+
+  private TypeaheadService service;
+
+  @BeforeEach
+  void setUp() {
+    when(patientRepository.findAll()).thenReturn(Flux.just(
+      new Patient(1L, "Luis González Prado", null, null, "11111111"),
+      new Patient(2L, "Ana Gonzales Ruiz", null, null, "22222222"),
+      new Patient(3L, "Pedro Ramírez", null, null, "33333333")
+    ));
+    when(psychologistRepository.findAll()).thenReturn(Flux.just(
+      new Psychologist(10L, "Dra. Peña", "Clínica", null, null, "44444444")
+    ));
+    index = new TypeaheadIndex(patientRepository, psychologistRepository, nameChangeFeed);
+    service = new TypeaheadService(index, patientNameSearch, psychologistService);
+    StepVerifier.create(index.reload()).verifyComplete();
+  }
+
+  @Nested
+  @DisplayName("suggest()")
+  class SuggestTests {
+
+    @Test
+    @DisplayName("Debe encontrar por el inicio de cualquier palabra, sin tildes ni mayúsculas")
+    void shouldMatchAnyWordIgnoringAccents() {
+      assertThat(index.suggest(TypeaheadIndex.Kind.PATIENT, "GONZ", 10))
+        .extracting(NameSuggestion::id)
+        .containsExactly(2L, 1L);
+      assertThat(index.suggest(TypeaheadIndex.Kind.PATIENT, "ramir", 10))
+        .containsExactly(new NameSuggestion(3L, "Pedro Ramírez"));
+      assertThat(index.suggest(TypeaheadIndex.Kind.PSYCHOLOGIST, "pena", 10))
+        .extracting(NameSuggestion::id)
+        .containsExactly(10L);
+    }
+
+    @Test
+    @DisplayName("Debe aceptar varias palabras y respetar el límite")
+    void shouldMatchPhraseAndRespectLimit() {
+      assertThat(index.suggest(TypeaheadIndex.Kind.PATIENT, "luis gon", 10))
+        .extracting(NameSuggestion::id)
+        .containsExactly(1L);
+      assertThat(index.suggest(TypeaheadIndex.Kind.PATIENT, "gonz", 1)).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Debe reflejar altas, renombres y bajas")
+    void shouldApplyWrites() {
+      StepVerifier.create(index.putAfterCommit(TypeaheadIndex.Kind.PATIENT, 4L, "Gonzalo Díaz")).verifyComplete();
+      StepVerifier.create(index.putAfterCommit(TypeaheadIndex.Kind.PATIENT, 1L, "Luis Prado")).verifyComplete();
+      StepVerifier.create(index.removeAfterCommit(TypeaheadIndex.Kind.PATIENT, 2L)).verifyComplete();
+
+      assertThat(index.suggest(TypeaheadIndex.Kind.PATIENT, "gonz", 10))
+        .containsExactly(new NameSuggestion(4L, "Gonzalo Díaz"));
+      assertThat(index.suggest(TypeaheadIndex.Kind.PATIENT, "prado", 10))
+        .containsExactly(new NameSuggestion(1L, "Luis Prado"));
+    }
+
+    @Test
+    @DisplayName("Debe aplicar los cambios de otras instancias recibidos por NOTIFY")
+    void shouldApplyRemoteChanges() {
+      index.apply(new NameChangeFeed.NameChange(TypeaheadIndex.Kind.PSYCHOLOGIST,
+        NameChangeFeed.NameChange.Type.UPSERTED, 11L, "Dr. Peralta"));
+      index.apply(new NameChangeFeed.NameChange(TypeaheadIndex.Kind.PSYCHOLOGIST,
+        NameChangeFeed.NameChange.Type.DELETED, 10L, null));
+
+      assertThat(index.suggest(TypeaheadIndex.Kind.PSYCHOLOGIST, "pe", 10))
+        .containsExactly(new NameSuggestion(11L, "Dr. Peralta"));
+    }
+
+    @Test
+    @DisplayName("Los cambios recibidos durante una recarga no deben perderse al publicarla")
+    void shouldKeepChangesMadeDuringReload() {
+      Sinks.Many<Patient> rows = Sinks.many().unicast().onBackpressureBuffer();
+      when(patientRepository.findAll()).thenReturn(rows.asFlux());
+      StepVerifier.Step<Void> reload = StepVerifier.create(index.reload());
+
+      reload.then(() -> {
+          rows.tryEmitNext(new Patient(1L, "Luis González Prado", null, null, "11111111"));
+          // Alta y baja confirmadas mientras se recorre la tabla
+          index.putAfterCommit(TypeaheadIndex.Kind.PATIENT, 5L, "Gonzalo Vera").block();
+          index.removeAfterCommit(TypeaheadIndex.Kind.PATIENT, 1L).block();
+          rows.tryEmitNext(new Patient(2L, "Ana Gonzales Ruiz", null, null, "22222222"));
+          rows.tryEmitComplete();
+        })
+        .verifyComplete();
+
+      assertThat(index.suggest(TypeaheadIndex.Kind.PATIENT, "gonz", 10))
+        .extracting(NameSuggestion::id)
+        .containsExactly(2L, 5L);
+    }
+  }
+
+  @Nested
+  @DisplayName("TypeaheadService.suggest()")
+  class FallbackTests {
+
+    @Test
+    @DisplayName("Con coincidencias en el índice no debe consultar la BD")
+    void shouldNotQueryDatabaseOnPrefixHit() {
+      StepVerifier.create(service.suggest("patient", "gon", null))
+        .assertNext(found -> assertThat(found).hasSize(2))
+        .verifyComplete();
+
+      verify(patientNameSearch, never()).findByName(anyString());
+    }
+
+    @Test
+    @DisplayName("Sin coincidencias debe recurrir a la búsqueda fuzzy de pacientes")
+    void shouldFallBackToFuzzySearchOnTypo() {
+      when(patientNameSearch.findByName("Gonsales")).thenReturn(Flux.just(
+        new Patient(2L, "Ana Gonzales Ruiz", null, null, "22222222")
+      ));
+
+      StepVerifier.create(service.suggest(null, "Gonsales", 5))
+        .expectNext(List.of(new NameSuggestion(2L, "Ana Gonzales Ruiz")))
+        .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Debe rechazar tipos y límites inválidos")
+    void shouldRejectInvalidArguments() {
+      StepVerifier.create(service.suggest("room", "gon", null))
+        .expectError(IllegalArgumentException.class)
+        .verify();
+      assertThatThrownBy(() -> service.suggest("patient", "gon", 50).block())
+        .isInstanceOf(IllegalArgumentException.class);
+    }
+  }
+}
@@ -0,0 +1,136 @@
+package com.clinica.mentalhealth.web;
+
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.clinica.mentalhealth.domain.Appointment;
+import com.clinica.mentalhealth.domain.Patient;
+import com.clinica.mentalhealth.service.AppointmentService;
+import com.clinica.mentalhealth.service.PatientImportService;
+import com.clinica.mentalhealth.service.PatientService;
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+
+/**
+ * Negociación de contenido de los listados: NDJSON y SSE van al handler en
+ * streaming; JSON y {@code *}/{@code *} siguen recibiendo el array.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Listados en streaming Tests")
+class StreamingListingsTest {
+
+  @Mock
+  private AppointmentService appointmentService;
+
+  @Mock
+  private PatientService patientService;
+
+  @Mock
+  private PatientImportService patientImportService;
+
+  private WebTestClient client;
+
+  @BeforeEach
+  void setUp() {
+    Appointment appointment = new Appointment(1L, LocalDateTime.of(2026, 3, 2, 10, 0),
+      LocalDateTime.of(2026, 3, 2, 11, 0), 1L, 1L, 1L);
+    Patient patient = new Patient(1L, "Luis Prado", "luis@test.com", "999000001", "11111111");
+    lenient().when(appointmentService.getMyAppointments()).thenReturn(Flux.just(appointment));
+    lenient().when(appointmentService.streamMyAppointments()).thenReturn(Flux.just(appointment));
+    lenient().when(patientService.findAll()).thenReturn(Flux.just(patient));
+    lenient().when(patientService.streamAll()).thenReturn(Flux.just(patient));
+    client = WebTestClient
+      .bindToController(new AppointmentController(appointmentService),
+        new PatientController(patientService, patientImportService))
+      .build();
+  }
+
+  @Nested
+  @DisplayName("GET /api/appointments")
+  class AppointmentListing {
+
+    @Test
+    @DisplayName("Accept NDJSON debe usar el handler en streaming")
+    void ndjsonShouldStream() {
+      client.get().uri("/api/appointments").accept(MediaType.APPLICATION_NDJSON)
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON);
+
+      verify(appointmentService).streamMyAppointments();
+      verify(appointmentService, never()).getMyAppointments();
+    }
+
+    @Test
+    @DisplayName("Accept text/event-stream debe usar el handler en streaming")
+    void sseShouldStream() {
+      client.get().uri("/api/appointments").accept(MediaType.TEXT_EVENT_STREAM)
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM);
+
+      verify(appointmentService).streamMyAppointments();
+      verify(appointmentService, never()).getMyAppointments();
+    }
+
+    @Test
+    @DisplayName("Accept JSON y */* deben seguir recibiendo el array")
+    void jsonAndWildcardShouldGetArray() {
+      client.get().uri("/api/appointments").accept(MediaType.APPLICATION_JSON)
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+        .expectBody().jsonPath("$[0].id").isEqualTo(1);
+      client.get().uri("/api/appointments").accept(MediaType.ALL)
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+        .expectBody().jsonPath("$[0].id").isEqualTo(1);
+
+      verify(appointmentService, never()).streamMyAppointments();
+    }
+  }
+
+  @Nested
+  @DisplayName("GET /api/patients")
+  class PatientListing {
+
+    @Test
+    @DisplayName("Accept NDJSON debe usar el handler en streaming")
+    void ndjsonShouldStream() {
+      client.get().uri("/api/patients").accept(MediaType.APPLICATION_NDJSON)
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON);
+
+      verify(patientService).streamAll();
+      verify(patientService, never()).findAll();
+    }
+
+    @Test
+    @DisplayName("Accept JSON y */* deben seguir recibiendo el array")
+    void jsonAndWildcardShouldGetArray() {
+      client.get().uri("/api/patients").accept(MediaType.APPLICATION_JSON)
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody().jsonPath("$[0].dni").isEqualTo("11111111");
+      client.get().uri("/api/patients").accept(MediaType.ALL)
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+        .expectBody().jsonPath("$[0].dni").isEqualTo("11111111");
+
+      verify(patientService, never()).streamAll();
+    }
+  }
+}